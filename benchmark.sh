@@ -0,0 +1,5 @@
+#!/bin/bash
+# Benchmarks every configuration of benchmark.suite on every graph of ./graphs.
+# Save a baseline with: ./benchmark.sh -baseline baseline.tsv -saveBaseline
+# Compare against it with: ./benchmark.sh -baseline baseline.tsv
+java -Xmx5000m -jar target/assignment4-jabeja-1.0-jar-with-dependencies.jar -benchmark ./graphs -benchmarkSuite ./benchmark.suite "$@"
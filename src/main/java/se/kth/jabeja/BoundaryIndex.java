@@ -0,0 +1,264 @@
+package se.kth.jabeja;
+
+import se.kth.jabeja.graph.CsrGraph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The boundary nodes of a coloring, those with at least one neighbor of another color, grouped by
+ * color, so partners can be drawn among the nodes that can take part in a useful swap.
+ * <p>
+ * All the nodes are kept in one permutation ordered by color. The segment of a color starts with
+ * its boundary nodes, followed by its interior nodes, so the boundary of a color is a range and a
+ * node enters or leaves it by exchanging places with the node at the edge of the range. Two nodes
+ * swapping colors exchange their places; a node moving alone to another color is carried across
+ * the segments in between with two exchanges per segment.
+ * <p>
+ * Every recoloring updates the number of neighbors of another color of the node and of its
+ * neighbors, one step per edge, and then moves each of those nodes in or out of the boundary in
+ * constant time.
+ */
+public class BoundaryIndex {
+    public static final int NO_NODE = -1;
+
+    private final int numNodes;
+    private final int[] offsets;
+    private final int[] adjacency;
+    private final int[] colors;
+    private final int numColors;
+    /**
+     * Number of edges of every node to neighbors of another color
+     */
+    private final int[] externalDegree;
+    /**
+     * Nodes ordered by color, boundary nodes first within a color
+     */
+    private final int[] order;
+    /**
+     * Place of every node in order
+     */
+    private final int[] position;
+    /**
+     * Start of the segment of every color in order, and the number of nodes at the end
+     */
+    private final int[] segmentStart;
+    private final int[] boundarySize;
+    private int size;
+
+    /**
+     * @param graph     the graph whose nodes are indexed
+     * @param colors    color of every node; the index has to be told of every change
+     * @param numColors colors are in [0, numColors)
+     */
+    public BoundaryIndex(CsrGraph graph, int[] colors, int numColors) {
+        this.numNodes = graph.getNumNodes();
+        this.offsets = graph.getOffsets();
+        this.adjacency = graph.getAdjacency();
+        this.colors = colors;
+        this.numColors = numColors;
+        this.externalDegree = new int[numNodes];
+        this.order = new int[numNodes];
+        this.position = new int[numNodes];
+        this.segmentStart = new int[numColors + 1];
+        this.boundarySize = new int[numColors];
+        rebuild();
+    }
+
+    /**
+     * Indexes the colors from scratch
+     */
+    public void rebuild() {
+        int[] colorSize = new int[numColors];
+        Arrays.fill(boundarySize, 0);
+        for (int node = 0; node < numNodes; node++) {
+            int color = colors[node];
+            int external = 0;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                if (colors[adjacency[i]] != color) {
+                    external++;
+                }
+            }
+            externalDegree[node] = external;
+            colorSize[color]++;
+            if (external > 0) {
+                boundarySize[color]++;
+            }
+        }
+
+        int[] nextBoundary = new int[numColors];
+        int[] nextInterior = new int[numColors];
+        size = 0;
+        for (int color = 0; color < numColors; color++) {
+            segmentStart[color + 1] = segmentStart[color] + colorSize[color];
+            nextBoundary[color] = segmentStart[color];
+            nextInterior[color] = segmentStart[color] + boundarySize[color];
+            size += boundarySize[color];
+        }
+        for (int node = 0; node < numNodes; node++) {
+            int color = colors[node];
+            place(externalDegree[node] > 0 ? nextBoundary[color]++ : nextInterior[color]++, node);
+        }
+    }
+
+    /**
+     * @return number of boundary nodes of all colors
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isBoundary(int node) {
+        return externalDegree[node] > 0;
+    }
+
+    /**
+     * To be called once the two nodes have exchanged their colors
+     */
+    public void onSwap(int node1, int node2) {
+        int color1 = colors[node1];
+        int color2 = colors[node2];
+        // node1 takes the place of node2 in the segment of its new color and the other way round
+        int position1 = position[node1];
+        place(position[node2], node1);
+        place(position1, node2);
+
+        updateNeighbors(node1, color2, color1, node2);
+        updateNeighbors(node2, color1, color2, node1);
+        externalDegree[node1] = countExternal(node1);
+        externalDegree[node2] = countExternal(node2);
+        updateMembership(node1);
+        updateMembership(node2);
+    }
+
+    /**
+     * To be called once the node has moved alone from one color to another
+     */
+    public void onMove(int node, int fromColor, int toColor) {
+        if (position[node] < segmentStart[fromColor] + boundarySize[fromColor]) {
+            leaveBoundary(node, fromColor);
+        }
+        // the node is an interior node of every segment it is carried across
+        for (int color = fromColor; color < toColor; color++) {
+            exchange(position[node], segmentStart[color + 1] - 1);
+            segmentStart[color + 1]--;
+            exchange(position[node], segmentStart[color + 1] + boundarySize[color + 1]);
+        }
+        for (int color = fromColor; color > toColor; color--) {
+            exchange(position[node], segmentStart[color] + boundarySize[color]);
+            exchange(position[node], segmentStart[color]);
+            segmentStart[color]++;
+        }
+
+        updateNeighbors(node, fromColor, toColor, NO_NODE);
+        externalDegree[node] = countExternal(node);
+        updateMembership(node);
+    }
+
+    /**
+     * Draws a boundary node uniformly at random. In parallel rounds the index is read while other
+     * threads update it, so the node may just have left the boundary.
+     *
+     * @return a boundary node, or {@link #NO_NODE} if there is none
+     */
+    public int sample(Random random) {
+        return sampleExcluding(NO_NODE, random);
+    }
+
+    /**
+     * Draws a boundary node of a color other than the given one uniformly at random
+     *
+     * @return a boundary node, or {@link #NO_NODE} if there is none
+     */
+    public int sampleOtherColor(int color, Random random) {
+        return sampleExcluding(color, random);
+    }
+
+    private int sampleExcluding(int excludedColor, Random random) {
+        int candidates = size - (excludedColor == NO_NODE ? 0 : boundarySize[excludedColor]);
+        if (candidates <= 0) {
+            return NO_NODE;
+        }
+        int index = random.nextInt(candidates);
+        for (int color = 0; color < numColors; color++) {
+            if (color == excludedColor) {
+                continue;
+            }
+            int colorSize = boundarySize[color];
+            if (index < colorSize) {
+                int place = segmentStart[color] + index;
+                // a place computed from counts another thread is changing may be past the end
+                return place < numNodes ? order[place] : NO_NODE;
+            }
+            index -= colorSize;
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Updates the neighbors of a recolored node
+     *
+     * @param skipped neighbor whose count is recomputed by the caller, or {@link #NO_NODE}
+     */
+    private void updateNeighbors(int node, int oldColor, int newColor, int skipped) {
+        if (oldColor == newColor) {
+            return;
+        }
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            int neighbor = adjacency[i];
+            if (neighbor == skipped || neighbor == node) {
+                continue;
+            }
+            int color = colors[neighbor];
+            if (color == oldColor) {
+                externalDegree[neighbor]++;
+            } else if (color == newColor) {
+                externalDegree[neighbor]--;
+            }
+            updateMembership(neighbor);
+        }
+    }
+
+    private int countExternal(int node) {
+        int color = colors[node];
+        int external = 0;
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            if (colors[adjacency[i]] != color) {
+                external++;
+            }
+        }
+        return external;
+    }
+
+    /**
+     * Moves the node in or out of the boundary of its color to match its neighbors
+     */
+    private void updateMembership(int node) {
+        int color = colors[node];
+        boolean inBoundary = position[node] < segmentStart[color] + boundarySize[color];
+        if (externalDegree[node] > 0 && !inBoundary) {
+            exchange(position[node], segmentStart[color] + boundarySize[color]);
+            boundarySize[color]++;
+            size++;
+        } else if (externalDegree[node] == 0 && inBoundary) {
+            leaveBoundary(node, color);
+        }
+    }
+
+    private void leaveBoundary(int node, int color) {
+        exchange(position[node], segmentStart[color] + boundarySize[color] - 1);
+        boundarySize[color]--;
+        size--;
+    }
+
+    private void exchange(int place1, int place2) {
+        int node1 = order[place1];
+        place(place1, order[place2]);
+        place(place2, node1);
+    }
+
+    private void place(int place, int node) {
+        order[place] = node;
+        position[node] = place;
+    }
+}
@@ -0,0 +1,146 @@
+package se.kth.jabeja;
+
+import se.kth.jabeja.graph.CsrGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the colors of the neighbors of a node in one pass over its adjacency, instead of one
+ * pass per color. Worth it for hubs, whose degree towards several colors is needed while
+ * looking for a partner.
+ * <p>
+ * The pass has no data dependent branch: the color of a neighbor is the index of the counter
+ * to increment. Four neighbors are processed per iteration into four separate rows of counters,
+ * so consecutive neighbors with the same color do not wait on each other's store; the rows are
+ * summed at the end.
+ */
+public class ColorCounter {
+    private static final int LANES = 4;
+    /**
+     * Nodes with a smaller degree are cheaper to scan once per color
+     */
+    private static final int MIN_HUB_DEGREE = 64;
+    /**
+     * Edges counted by one subtask of {@link #countInParallel(int, int[])}
+     */
+    private static final int SUBTASK_EDGES = 1 << 13;
+
+    private final int[] offsets;
+    private final int[] adjacency;
+    private final int[] edgeWeights;
+    private final int[] colors;
+    private final int numColors;
+    private final int hubDegree;
+    private final int[] lanes;
+
+    /**
+     * @param graph     the graph whose nodes are counted
+     * @param colors    color of every node, read on every count
+     * @param numColors colors are in [0, numColors)
+     */
+    public ColorCounter(CsrGraph graph, int[] colors, int numColors) {
+        this.offsets = graph.getOffsets();
+        this.adjacency = graph.getAdjacency();
+        this.edgeWeights = graph.getEdgeWeights();
+        this.colors = colors;
+        this.numColors = numColors;
+        // clearing and summing the rows costs about LANES + 1 passes over the counters
+        this.hubDegree = Math.max(MIN_HUB_DEGREE, 2 * (LANES + 1) * numColors);
+        this.lanes = new int[LANES * numColors];
+    }
+
+    /**
+     * @return true if the colors of the node should be counted with {@link #count(int, int[])}
+     */
+    public boolean isHub(int node) {
+        return offsets[node + 1] - offsets[node] >= hubDegree;
+    }
+
+    /**
+     * @param node   node whose neighbors are counted
+     * @param counts receives, for every color, the number of neighbors (or the weight of the edges to them)
+     * @return counts
+     */
+    public int[] count(int node, int[] counts) {
+        Arrays.fill(lanes, 0);
+        countRange(offsets[node], offsets[node + 1], lanes);
+        return sumLanes(lanes, counts);
+    }
+
+    /**
+     * Same as {@link #count(int, int[])}, with the neighbors split among fork/join subtasks.
+     * Must be called from a fork/join pool; worth it for hubs with hundreds of thousands of neighbors.
+     */
+    public int[] countInParallel(int node, int[] counts) {
+        return sumLanes(new CountTask(offsets[node], offsets[node + 1]).invoke(), counts);
+    }
+
+    /**
+     * Adds the colors of the adjacency entries in [start, end) to the lanes
+     */
+    private void countRange(int start, int end, int[] lanes) {
+        int k = numColors;
+        int unrolled = start + ((end - start) & ~(LANES - 1));
+        int i = start;
+        if (edgeWeights == null) {
+            for (; i < unrolled; i += LANES) {
+                lanes[colors[adjacency[i]]]++;
+                lanes[k + colors[adjacency[i + 1]]]++;
+                lanes[2 * k + colors[adjacency[i + 2]]]++;
+                lanes[3 * k + colors[adjacency[i + 3]]]++;
+            }
+            for (; i < end; i++) {
+                lanes[colors[adjacency[i]]]++;
+            }
+        } else {
+            for (; i < unrolled; i += LANES) {
+                lanes[colors[adjacency[i]]] += edgeWeights[i];
+                lanes[k + colors[adjacency[i + 1]]] += edgeWeights[i + 1];
+                lanes[2 * k + colors[adjacency[i + 2]]] += edgeWeights[i + 2];
+                lanes[3 * k + colors[adjacency[i + 3]]] += edgeWeights[i + 3];
+            }
+            for (; i < end; i++) {
+                lanes[colors[adjacency[i]]] += edgeWeights[i];
+            }
+        }
+    }
+
+    private int[] sumLanes(int[] lanes, int[] counts) {
+        int k = numColors;
+        for (int color = 0; color < k; color++) {
+            counts[color] = lanes[color] + lanes[k + color] + lanes[2 * k + color] + lanes[3 * k + color];
+        }
+        return counts;
+    }
+
+    private class CountTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+
+        CountTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (end - start <= SUBTASK_EDGES) {
+                int[] taskLanes = new int[LANES * numColors];
+                countRange(start, end, taskLanes);
+                return taskLanes;
+            }
+            int middle = (start + end) >>> 1;
+            CountTask left = new CountTask(start, middle);
+            left.fork();
+            int[] right = new CountTask(middle, end).compute();
+            int[] merged = left.join();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += right[i];
+            }
+            return merged;
+        }
+    }
+}
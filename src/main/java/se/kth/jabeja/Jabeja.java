@@ -1,47 +1,249 @@
 package se.kth.jabeja;
 
 import org.apache.log4j.Logger;
+import se.kth.jabeja.annealing.CoolingSchedule;
+import se.kth.jabeja.annealing.CoolingSchedules;
+import se.kth.jabeja.api.ProgressListener;
+import se.kth.jabeja.api.RoundReport;
+import se.kth.jabeja.api.SwapListener;
 import se.kth.jabeja.config.Config;
+import se.kth.jabeja.config.BoundarySamplingPolicy;
 import se.kth.jabeja.config.NodeSelectionPolicy;
-import se.kth.jabeja.io.FileIO;
-import se.kth.jabeja.rand.RandNoGenerator;
-
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import se.kth.jabeja.config.Topology;
+import se.kth.jabeja.energy.AcceptanceFunction;
+import se.kth.jabeja.energy.AcceptanceFunctions;
+import se.kth.jabeja.energy.EnergyFunction;
+import se.kth.jabeja.energy.EnergyFunctions;
+import se.kth.jabeja.graph.CsrGraph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.lang.Math;
 
+/**
+ * The JaBeJa engine. It works on a graph in CSR form and a primitive color array,
+ * holds no static state and writes no files, so several instances can run concurrently.
+ * The colors are changed in place and hold the best coloring found once the run ends.
+ * <p>
+ * With more than one thread, the nodes of a round are processed by a fork/join pool. A round is
+ * split into tasks of about the same number of edges rather than of nodes, so the hubs of
+ * power-law graphs do not hold back one thread while the others wait, and idle threads steal
+ * the remaining tasks. Partners are evaluated concurrently; swaps are committed one at a time,
+ * after checking that the evaluated colors are still current.
+ */
 public class Jabeja {
     final static Logger logger = Logger.getLogger(Jabeja.class);
-    public static final String TEXT_FILE = "\t\t";
-    public static final String CSV_FILE = ",";
+    private static final int NO_PARTNER = -1;
+    /**
+     * Work of a node besides scanning its edges, counted in edges when splitting a round
+     */
+    private static final int NODE_COST = 8;
+    /**
+     * Tasks per thread and round, so threads that finish early can steal work
+     */
+    private static final int TASKS_PER_THREAD = 8;
+    /**
+     * Draws per slot of the uniform sample before a boundary sample is left short
+     */
+    private static final int BOUNDARY_SAMPLE_ATTEMPTS = 4;
     private final Config config;
-    private final HashMap<Integer/*id*/, Node/*neighbors*/> entireGraph;
-    private final ArrayList<Integer> nodeIds;
+    private final CsrGraph graph;
+    private final int numNodes;
+    private final int[] offsets;
+    private final int[] adjacency;
+    private final int[] edgeWeights;
+    private final int[] colors;
+    private final int[] initColors;
+    private final int[] vertexWeights;
+    private final int numPartitions;
+    private final Topology topology;
+    /**
+     * Weight of a neighbor of color j for a node of color i at i * numPartitions + j: the largest
+     * level cost minus the cost of an edge between i and j. Null without a topology.
+     */
+    private final int[] colorAffinity;
+    private final long[] partitionWeights;
+    private final double minPartitionWeight;
+    private final double maxPartitionWeight;
+    private final boolean oneWayMoves;
+    private final Random random;
+    private final ProgressListener listener;
+    private SwapListener swapListener;
     private int numberOfSwaps;
+    private int numberOfMoves;
     private int round;
     private double temperature;
-    private boolean resultFileCreated = false;
+    private final CoolingSchedule coolingSchedule;
+    private final EnergyFunction energyFunction;
+    private final AcceptanceFunction acceptanceFunction;
+    private final double migrationPenalty;
+    private final int migrationBudget;
+    private int migrations;
+    private final NodeSelectionPolicy nodeSelectionPolicy;
+    private final BoundarySamplingPolicy boundarySamplingPolicy;
+    private final BoundaryIndex boundaryIndex;
+    private final int threads;
+    private final int hubSplitDegree;
+    private int[] bestColors;
+    /**
+     * Topology cost with a topology, edge cut otherwise, of the best coloring
+     */
+    private long bestObjective = Long.MAX_VALUE;
+    private long bestEdgeCut = Long.MAX_VALUE;
+    private long bestTopologyCost = -1;
+    private int bestRound = -1;
 
     //-------------------------------------------------------------------
-    public Jabeja(HashMap<Integer, Node> graph, Config config) {
-        this.entireGraph = graph;
-        this.nodeIds = new ArrayList(entireGraph.keySet());
+
+    /**
+     * @param graph      graph to partition
+     * @param colors     initial color of every node, changed in place
+     * @param initColors color every node is considered to start from when counting migrations
+     * @param config     parameters of the run
+     * @param random     source of randomness of this run only
+     * @param listener   notified after every round, may be null
+     */
+    public Jabeja(CsrGraph graph, int[] colors, int[] initColors, Config config, Random random,
+                  ProgressListener listener) {
+        if (colors.length != graph.getNumNodes() || initColors.length != graph.getNumNodes()) {
+            throw new IllegalArgumentException("Colors do not match the number of nodes of the graph");
+        }
+        checkColors(colors, config.getNumPartitions(), "color");
+        checkColors(initColors, config.getNumPartitions(), "initial color");
+        this.graph = graph;
+        this.numNodes = graph.getNumNodes();
+        this.offsets = graph.getOffsets();
+        this.adjacency = graph.getAdjacency();
+        this.edgeWeights = graph.getEdgeWeights();
+        this.colors = colors;
+        this.initColors = initColors;
+        this.vertexWeights = graph.getVertexWeights();
+        this.numPartitions = config.getNumPartitions();
+        this.topology = config.hasTopology() ? config.getTopology() : null;
+        this.colorAffinity = topology != null ? getColorAffinity(topology, numPartitions) : null;
+        this.partitionWeights = new long[numPartitions];
+        double averageWeight = (double) graph.getTotalVertexWeight() / numPartitions;
+        this.minPartitionWeight = (1 - config.getBalanceTolerance()) * averageWeight;
+        this.maxPartitionWeight = (1 + config.getBalanceTolerance()) * averageWeight;
+        this.oneWayMoves = config.getBalanceTolerance() > 0;
+        this.random = random;
+        this.listener = listener;
         this.round = 0;
         this.numberOfSwaps = 0;
         this.config = config;
         this.temperature = config.getTemperature();
+        this.coolingSchedule = CoolingSchedules.create(config);
+        // the degrees of the nodes towards a color are summed in ints
+        long maxDegree = graph.getMaxWeightedDegree() * (topology != null ? topology.getMaxCost() : 1);
+        if (maxDegree > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The weighted degree of a node" + (topology != null
+                    ? " times the largest level cost" : "") + " is " + maxDegree + ", more than " + Integer.MAX_VALUE);
+        }
+        this.energyFunction = EnergyFunctions.create(config.getAlpha(), (int) maxDegree);
+        this.acceptanceFunction = AcceptanceFunctions.create(config.getUseAcceptanceProbability());
+        this.migrationPenalty = config.getMigrationPenalty();
+        this.migrationBudget = config.getMigrationBudget() < 0 ? Integer.MAX_VALUE : config.getMigrationBudget();
+        this.migrations = countMigrations();
+        computePartitionWeights();
+        this.nodeSelectionPolicy = config.getNodeSelectionPolicy();
+        this.boundarySamplingPolicy = config.getBoundarySamplingPolicy();
+        this.boundaryIndex = boundarySamplingPolicy != BoundarySamplingPolicy.NONE
+                && nodeSelectionPolicy != NodeSelectionPolicy.LOCAL
+                ? new BoundaryIndex(graph, colors, numPartitions) : null;
+        this.threads = config.getThreads();
+        this.hubSplitDegree = config.getHubSplitDegree();
+        this.bestColors = new int[numNodes];
+    }
+
+
+    /**
+     * @param what name of the colors in the error message
+     * @throws IllegalArgumentException if a color is not in [0, numPartitions)
+     */
+    private static void checkColors(int[] colors, int numPartitions, String what) {
+        for (int node = 0; node < colors.length; node++) {
+            if (colors[node] < 0 || colors[node] >= numPartitions) {
+                throw new IllegalArgumentException("Node " + (node + 1) + " has the " + what + " " + colors[node]
+                        + ", not in [0, " + numPartitions + ")");
+            }
+        }
+    }
+
+    /**
+     * @return the affinity of every pair of colors, see {@link #colorAffinity}
+     */
+    private static int[] getColorAffinity(Topology topology, int numPartitions) {
+        if (topology.getNumPartitions() != numPartitions) {
+            throw new IllegalArgumentException("The topology has " + topology.getNumPartitions()
+                    + " partitions but the run has " + numPartitions);
+        }
+        int[] affinity = new int[numPartitions * numPartitions];
+        for (int color1 = 0; color1 < numPartitions; color1++) {
+            for (int color2 = 0; color2 < numPartitions; color2++) {
+                affinity[color1 * numPartitions + color2] = topology.getMaxCost()
+                        - topology.getDistance(color1, color2);
+            }
+        }
+        return affinity;
     }
 
+    /**
+     * @param swapListener told of every color change, may be null
+     */
+    public void setSwapListener(SwapListener swapListener) {
+        this.swapListener = swapListener;
+    }
 
     //-------------------------------------------------------------------
-    public void startJabeja() throws IOException {
-        double minTemperature = config.getUseAcceptanceProbability() ? 0.00001 : 1;
+    public void startJabeja() {
+        if (swapListener != null) {
+            swapListener.onStart(colors, numPartitions);
+        }
+        long deadline = config.getTimeBudget() > 0
+                ? System.currentTimeMillis() + config.getTimeBudget() * 1000L
+                : Long.MAX_VALUE;
+
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            runRounds(pool, deadline);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        restoreBestColors();
+        if (swapListener != null) {
+            swapListener.onFinish(bestRound);
+        }
+        logger.info((topology != null ? "best topology cost: " : "best edge cut: ") + bestObjective
+                + " found in round: " + bestRound);
+    }
+
+    /**
+     * @param pool     pool running the rounds, or null to run them in the calling thread
+     * @param deadline time in millis at which the run has to stop
+     */
+    private void runRounds(ForkJoinPool pool, long deadline) {
+        Sampler sampler = new Sampler(random);
+        long grain = Math.max(1024, getCost(0, numNodes) / ((long) threads * TASKS_PER_THREAD));
 
         for (round = 0; round < config.getRounds(); round++) {
-            for (int id : entireGraph.keySet()) {
-                sampleAndSwap(id);
+            int swapsBeforeRound = numberOfSwaps;
+            if (pool == null) {
+                for (int node = 0; node < numNodes; node++) {
+                    sampler.sampleAndSwap(node);
+                }
+            } else {
+                pool.invoke(new RoundTask(0, numNodes, grain, random.nextLong()));
+            }
+
+            RoundReport report = report();
+            long objective = report.getObjective();
+            if (objective < bestObjective) {
+                saveBestColors(report);
             }
 
             // Hypertune by reseting temperature x times to converge more than one time
@@ -50,96 +252,247 @@ public class Jabeja {
             }
 
             // One cycle for all nodes have completed.
-            if (temperature > minTemperature) {
-                saCoolDown();
-            }
+            double swapRate = (double) (numberOfSwaps - swapsBeforeRound) / numNodes;
+            temperature = coolingSchedule.nextTemperature(temperature, round, swapRate, objective);
 
-            report();
+            if (shouldStop(objective, deadline)) {
+                round++;
+                break;
+            }
         }
     }
 
     /**
-     * Simulated annealing cooling function
+     * Checks the early termination criteria of the anytime mode: the wall-clock
+     * budget, the target edge cut and the plateau of the best edge cut.
+     *
+     * @param objective edge cut of the current round, or its topology cost with a topology
+     * @param deadline  time in millis at which the run has to stop
+     * @return true if no more rounds should be executed
      */
-    private void saCoolDown() {
-        if (config.getUseAcceptanceProbability()) {
-            temperature *= config.getDelta();
+    private boolean shouldStop(long objective, long deadline) {
+        if (System.currentTimeMillis() >= deadline) {
+            logger.info("Time budget of " + config.getTimeBudget() + "s exhausted in round: " + round);
+            return true;
+        }
+        if (config.getTargetEdgeCut() >= 0 && objective <= config.getTargetEdgeCut()) {
+            logger.info("Target edge cut reached in round: " + round);
+            return true;
         }
-        else {
-            temperature -= config.getDelta();
+        if (config.getPlateauWindow() > 0 && round - bestRound >= config.getPlateauWindow()) {
+            logger.info("Edge cut has not improved for " + config.getPlateauWindow() + " rounds");
+            return true;
         }
+        return false;
     }
 
     /**
-     * Sample and swap algorithm at node p
+     * Keeps a snapshot of the current coloring as the best one seen so far
      *
-     * @param currentNodeId
+     * @param report state of the current round
      */
-    private void sampleAndSwap(int currentNodeId) {
-        Node partner = null;
-        Node currentNode = entireGraph.get(currentNodeId);
+    private void saveBestColors(RoundReport report) {
+        System.arraycopy(colors, 0, bestColors, 0, numNodes);
+        bestObjective = report.getObjective();
+        bestEdgeCut = report.getEdgeCut();
+        bestTopologyCost = report.getTopologyCost();
+        bestRound = round;
+    }
 
-        if (config.getNodeSelectionPolicy() == NodeSelectionPolicy.HYBRID
-                || config.getNodeSelectionPolicy() == NodeSelectionPolicy.LOCAL) {
-            // Search best partner in a sample of random neighbors
-            partner = findPartner(currentNodeId, getNeighbors(currentNodeId));
+    /**
+     * Restores the best coloring seen so far, so the colors hold the best partition found
+     */
+    private void restoreBestColors() {
+        if (bestRound < 0) {
+            return;
         }
+        System.arraycopy(bestColors, 0, colors, 0, numNodes);
+        migrations = countMigrations();
+        computePartitionWeights();
+        if (boundaryIndex != null) {
+            boundaryIndex.rebuild();
+        }
+    }
 
-        if (config.getNodeSelectionPolicy() == NodeSelectionPolicy.HYBRID
-                || config.getNodeSelectionPolicy() == NodeSelectionPolicy.RANDOM) {
-            // If local policy fails then find best partner in random sample of the entire graph
-            if (partner == null) {
-                partner = findPartner(currentNodeId, getSample(currentNodeId));
-            }
+    /**
+     * @return the colors of the nodes, indexed by node
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * @return edge cut of the best coloring, weighted if the graph has edge weights
+     */
+    public long getBestEdgeCut() {
+        return bestEdgeCut;
+    }
+
+    /**
+     * @return topology cost of the best coloring, -1 without a topology
+     */
+    public long getBestTopologyCost() {
+        return bestTopologyCost;
+    }
+
+    public int getBestRound() {
+        return bestRound;
+    }
+
+    /**
+     * @return number of rounds executed
+     */
+    public int getRound() {
+        return round;
+    }
+
+    public int getNumberOfSwaps() {
+        return numberOfSwaps;
+    }
+
+    public int getNumberOfMoves() {
+        return numberOfMoves;
+    }
+
+    public int getMigrations() {
+        return migrations;
+    }
+
+    public void swapColors(int node1, int node2) {
+        int currentNodeColor = colors[node1];
+        migrations += getMigrationDelta(node1, currentNodeColor, node2, colors[node2]);
+        if (vertexWeights != null) {
+            int delta = vertexWeights[node1] - vertexWeights[node2];
+            partitionWeights[currentNodeColor] -= delta;
+            partitionWeights[colors[node2]] += delta;
+        }
+        colors[node1] = colors[node2];
+        colors[node2] = currentNodeColor;
+        if (boundaryIndex != null) {
+            boundaryIndex.onSwap(node1, node2);
         }
+        numberOfSwaps ++;
+    }
 
-        // If a partner was found, swap the colors
-        if (partner != null) {
-            swapColors(currentNode, partner);
+    /**
+     * Swaps the colors of the two nodes if they still have the colors the swap was evaluated with
+     * and the swap still respects the migration budget and the balance, which other threads may
+     * have changed in the meantime.
+     *
+     * @return true if the colors were swapped
+     */
+    private synchronized boolean trySwap(int node1, int color1, int node2, int color2) {
+        if (colors[node1] != color1 || colors[node2] != color2
+                || migrations + getMigrationDelta(node1, color1, node2, color2) > migrationBudget
+                || (vertexWeights != null
+                && !keepsBalance(color1, color2, vertexWeights[node1] - vertexWeights[node2]))) {
+            return false;
         }
+        swapColors(node1, node2);
+        if (swapListener != null) {
+            swapListener.onSwap(round, node1, color1, node2, color2);
+        }
+        return true;
     }
 
-    public void swapColors(Node node1, Node node2) {
-        int currentNodeColor = node1.getColor();
-        node1.setColor(node2.getColor());
-        node2.setColor(currentNodeColor);
-        numberOfSwaps ++;
+    /**
+     * Moves the node alone to another color if it still has the color the move was evaluated with
+     * and the move still respects the migration budget and the balance.
+     *
+     * @return true if the node was moved
+     */
+    private synchronized boolean tryMove(int node, int fromColor, int toColor) {
+        int migrationDelta = getMoveMigrationDelta(node, fromColor, toColor);
+        int weight = getVertexWeight(node);
+        if (colors[node] != fromColor || migrations + migrationDelta > migrationBudget
+                || !keepsBalance(fromColor, toColor, weight)) {
+            return false;
+        }
+        migrations += migrationDelta;
+        partitionWeights[fromColor] -= weight;
+        partitionWeights[toColor] += weight;
+        colors[node] = toColor;
+        if (boundaryIndex != null) {
+            boundaryIndex.onMove(node, fromColor, toColor);
+        }
+        numberOfMoves++;
+        if (swapListener != null) {
+            swapListener.onMove(round, node, fromColor, toColor);
+        }
+        return true;
     }
 
-    public Node findPartner(int currentNodeId, Integer[] nodesIds) {
-        Node currentNode = entireGraph.get(currentNodeId);
-        int oldDegreeCurrentNode = getDegree(currentNode, currentNode.getColor());
-        double maxSumNodeDegrees = 0;
-        Node bestPartner = null;
+    /**
+     * Checks whether moving a weight from one partition to another keeps the partitions within
+     * the balance tolerance. Moves that reduce an existing violation are always allowed.
+     *
+     * @param fromColor partition losing the weight
+     * @param toColor   partition gaining the weight, may be negative to move weight back
+     * @param weight    weight moved
+     */
+    private boolean keepsBalance(int fromColor, int toColor, long weight) {
+        long from = partitionWeights[fromColor];
+        long to = partitionWeights[toColor];
+        return getBalanceViolation(from - weight) + getBalanceViolation(to + weight)
+                <= getBalanceViolation(from) + getBalanceViolation(to);
+    }
 
-        for (int nodeId : nodesIds) {
-            Node node = entireGraph.get(nodeId);
-            // If the colors are different
-            if (node.getColor() != currentNode.getColor()) {
-                int oldDegreeNode = getDegree(node, node.getColor());
-                int newDegreeCurrentNode = getDegree(currentNode, node.getColor());
-                int newDegreeNode = getDegree(node, currentNode.getColor());
+    private double getBalanceViolation(long weight) {
+        return Math.max(0, weight - maxPartitionWeight) + Math.max(0, minPartitionWeight - weight);
+    }
 
-                double oldSumNodeDegrees = Math.pow(oldDegreeCurrentNode, config.getAlpha()) + Math.pow(oldDegreeNode, config.getAlpha());
-                double newSumNodeDegrees = Math.pow(newDegreeCurrentNode, config.getAlpha()) + Math.pow(newDegreeNode, config.getAlpha());
+    private int getVertexWeight(int node) {
+        return vertexWeights == null ? 1 : vertexWeights[node];
+    }
 
-                if (config.getUseAcceptanceProbability()) {
-                    double acceptanceProbability = getAcceptance(oldSumNodeDegrees, newSumNodeDegrees);
-                    if (acceptanceProbability > Math.random() && (newSumNodeDegrees > maxSumNodeDegrees)) {
-                        bestPartner = node;
-                        maxSumNodeDegrees = newSumNodeDegrees;
-                    }
-                }
-                else {
-                    if ((newSumNodeDegrees * temperature > oldSumNodeDegrees) && (newSumNodeDegrees > maxSumNodeDegrees)) {
-                        bestPartner = node;
-                        maxSumNodeDegrees = newSumNodeDegrees;
-                    }
-                }
-            }
+    private void computePartitionWeights() {
+        Arrays.fill(partitionWeights, 0);
+        for (int node = 0; node < numNodes; node++) {
+            partitionWeights[colors[node]] += getVertexWeight(node);
         }
+    }
+
+    /**
+     * @return weight of the heaviest partition divided by the average weight
+     */
+    private double getImbalance() {
+        long total = 0;
+        long max = 0;
+        for (long weight : partitionWeights) {
+            total += weight;
+            max = Math.max(max, weight);
+        }
+        return total == 0 ? 1 : max / ((double) total / numPartitions);
+    }
+
+    /**
+     * Change in the number of nodes away from their initial color if the two nodes swap their colors
+     */
+    private int getMigrationDelta(int node1, int color1, int node2, int color2) {
+        int init1 = initColors[node1];
+        int init2 = initColors[node2];
+        return (color2 != init1 ? 1 : 0) - (color1 != init1 ? 1 : 0)
+                + (color1 != init2 ? 1 : 0) - (color2 != init2 ? 1 : 0);
+    }
 
-        return bestPartner;
+    /**
+     * Change in the number of nodes away from their initial color if the node moves alone
+     */
+    private int getMoveMigrationDelta(int node, int fromColor, int toColor) {
+        return (toColor != initColors[node] ? 1 : 0) - (fromColor != initColors[node] ? 1 : 0);
+    }
+
+    /**
+     * @return number of nodes whose color differs from the initial one
+     */
+    private int countMigrations() {
+        int count = 0;
+        for (int node = 0; node < numNodes; node++) {
+            if (colors[node] != initColors[node]) {
+                count++;
+            }
+        }
+        return count;
     }
 
     public double getAcceptance(double oldEdgeCut, double newEdgeCut) {
@@ -151,156 +504,405 @@ public class Jabeja {
      *
      * @param node
      * @param colorId
-     * @return how many neighbors of the node have color == colorId
+     * @return how many neighbors of the node have color == colorId, by edge weight if the graph has
+     * edge weights; with a topology every neighbor counts for the affinity of its color with colorId
      */
-    private int getDegree(Node node, int colorId) {
+    private int getDegree(int node, int colorId) {
         int degree = 0;
-        for (int neighborId : node.getNeighbours()) {
-            Node neighbor = entireGraph.get(neighborId);
-            if (neighbor.getColor() == colorId) {
-                degree++;
+        if (colorAffinity != null) {
+            // with a topology, neighbors in nearby partitions count for part of an edge
+            int row = colorId * numPartitions;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                degree += colorAffinity[row + colors[adjacency[i]]] * (edgeWeights == null ? 1 : edgeWeights[i]);
+            }
+        } else if (edgeWeights == null) {
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                if (colors[adjacency[i]] == colorId) {
+                    degree++;
+                }
+            }
+        } else {
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                if (colors[adjacency[i]] == colorId) {
+                    degree += edgeWeights[i];
+                }
             }
         }
         return degree;
     }
 
     /**
-     * Returns a uniformly random sample of the graph
-     *
-     * @param currentNodeId
-     * @return Returns a uniformly random sample of the graph
+     * @return estimated work of processing the nodes in [from, to) once
      */
-    private Integer[] getSample(int currentNodeId) {
-        int graphSize = entireGraph.size();
-        int neighborsSampleSize = config.getUniformRandomSampleSize();
-        ArrayList<Integer> rndIds = new ArrayList<>();
-
-        // Get neighborsSampleSize unique nodes from the graph excluding currentNodeId
-        do {
-            int rndId = nodeIds.get(RandNoGenerator.nextInt(graphSize));
-            if (rndId != currentNodeId && !rndIds.contains(rndId)) {
-                rndIds.add(rndId);
-                neighborsSampleSize --;
+    private long getCost(int from, int to) {
+        return (long) offsets[to] - offsets[from] + (long) NODE_COST * (to - from);
+    }
+
+    private static boolean contains(int[] array, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Processes the nodes of a range in one round. Ranges costing more than the grain are split
+     * in two of about the same cost; each leaf samples with its own random generator.
+     */
+    private class RoundTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final long grain;
+        private final long seed;
+
+        RoundTask(int from, int to, long grain, long seed) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 || getCost(from, to) <= grain) {
+                Sampler sampler = new Sampler(new Random(seed + from * 0x9E3779B97F4A7C15L));
+                for (int node = from; node < to; node++) {
+                    sampler.sampleAndSwap(node);
+                }
+                return;
             }
-        } while (neighborsSampleSize != 0);
+            int middle = split();
+            invokeAll(new RoundTask(from, middle, grain, seed), new RoundTask(middle, to, grain, seed));
+        }
 
-        Integer[] ids = new Integer[rndIds.size()];
-        return rndIds.toArray(ids);
+        /**
+         * @return the node in (from, to) that splits the range in two halves of about the same cost
+         */
+        private int split() {
+            long half = getCost(from, to) / 2;
+            int low = from + 1;
+            int high = to - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (getCost(from, middle) < half) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
     }
 
     /**
-     * Get random neighbors. The number of random neighbors is controlled using
-     * -closeByNeighbors command line argument which can be obtained from the config
-     * using {@link Config#getRandomNeighborSampleSize()}
-     *
-     * @param
-     * @return
+     * Looks for partners of the nodes. Holds the buffers and the random generator of one thread;
+     * the colors are only changed through {@link #trySwap} and {@link #tryMove}.
      */
-    private Integer[] getNeighbors(int currentNodeId) {
-        Node currentNode = entireGraph.get(currentNodeId);
-        ArrayList<Integer> list = currentNode.getNeighbours();
-        int neighborsSize = list.size();
-        int neighborsSampleSize = config.getRandomNeighborSampleSize();
-
-        // List that contains neighbor sample
-        ArrayList<Integer> rndIds = new ArrayList<>();
-
-        // If there are less neighbors than the random sample size, take all
-        if (neighborsSize <= neighborsSampleSize) {
-            rndIds.addAll(list);
-        } else {
-            // If there are more neighbors than the sample size, do reservoir sampling
-            do {
-                int index = RandNoGenerator.nextInt(neighborsSize);
-                int rndId = list.get(index);
-                if (!rndIds.contains(rndId)) {
-                    rndIds.add(rndId);
-                    neighborsSampleSize--;
+    private class Sampler {
+        private final Random random;
+        private final int[] neighborSample;
+        private final int[] uniformSample;
+        private final int[] neighborColorCounts;
+        private final boolean[] evaluatedColors;
+        private final ColorCounter colorCounter;
+        private final int[] currentNodeCounts;
+        private final int[] candidateCounts;
+        /**
+         * Color the partner returned by the last {@link #findPartner} was evaluated with
+         */
+        private int partnerColor;
+
+        Sampler(Random random) {
+            this.random = random;
+            this.neighborSample = new int[config.getRandomNeighborSampleSize()];
+            this.uniformSample = new int[Math.min(config.getUniformRandomSampleSize(), Math.max(numNodes - 1, 0))];
+            this.neighborColorCounts = new int[numPartitions];
+            this.evaluatedColors = new boolean[numPartitions];
+            this.colorCounter = new ColorCounter(graph, colors, numPartitions);
+            this.currentNodeCounts = new int[numPartitions];
+            this.candidateCounts = new int[numPartitions];
+        }
+
+        /**
+         * Sample and swap algorithm at node p
+         *
+         * @param currentNode
+         */
+        void sampleAndSwap(int currentNode) {
+            int currentColor = colors[currentNode];
+            int partner = NO_PARTNER;
+
+            if (nodeSelectionPolicy == NodeSelectionPolicy.HYBRID
+                    || nodeSelectionPolicy == NodeSelectionPolicy.LOCAL) {
+                // Search best partner in a sample of random neighbors
+                partner = findPartner(currentNode, currentColor, neighborSample, getNeighbors(currentNode));
+            }
+
+            if (nodeSelectionPolicy == NodeSelectionPolicy.HYBRID
+                    || nodeSelectionPolicy == NodeSelectionPolicy.RANDOM) {
+                // If local policy fails then find best partner in random sample of the entire graph
+                if (partner == NO_PARTNER) {
+                    partner = findPartner(currentNode, currentColor, uniformSample,
+                            boundaryIndex != null ? getBoundarySample(currentNode, currentColor) : getSample(currentNode));
+                }
+            }
+
+            // If a partner was found, swap the colors
+            if (partner != NO_PARTNER) {
+                trySwap(currentNode, currentColor, partner, partnerColor);
+            } else if (oneWayMoves) {
+                // Without a partner the node may still move alone while the partitions stay balanced
+                moveNode(currentNode, currentColor);
+            }
+        }
+
+        /**
+         * One-way move: recolors the node with the color of its neighbors that improves its utility
+         * most, if the partitions stay within the balance tolerance.
+         *
+         * @param node
+         * @param currentColor color of the node
+         */
+        private void moveNode(int node, int currentColor) {
+            int weight = getVertexWeight(node);
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                neighborColorCounts[colors[adjacency[i]]] += edgeWeights == null ? 1 : edgeWeights[i];
+            }
+
+            double oldEnergy = energyFunction.energy(getDegree(node, currentColor, neighborColorCounts));
+            double maxEnergy = 0;
+            int bestColor = currentColor;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int color = colors[adjacency[i]];
+                // every color is evaluated once
+                if (color == currentColor || evaluatedColors[color]) {
+                    continue;
+                }
+                evaluatedColors[color] = true;
+                int migrationDelta = getMoveMigrationDelta(node, currentColor, color);
+                double newEnergy = energyFunction.energy(getDegree(node, color, neighborColorCounts))
+                        - migrationPenalty * migrationDelta;
+
+                if (newEnergy <= maxEnergy || migrations + migrationDelta > migrationBudget
+                        || !keepsBalance(currentColor, color, weight)) {
+                    continue;
+                }
+                if (acceptanceFunction.accept(oldEnergy, newEnergy, temperature, random)) {
+                    bestColor = color;
+                    maxEnergy = newEnergy;
+                }
+            }
+            // neighbors recolored by other threads may have left counts behind
+            Arrays.fill(neighborColorCounts, 0);
+            Arrays.fill(evaluatedColors, false);
+
+            if (bestColor != currentColor) {
+                tryMove(node, currentColor, bestColor);
+            }
+        }
+
+        /**
+         * @param currentNode   node looking for a partner
+         * @param currentColor  color of the node
+         * @param candidates    candidate partners
+         * @param numCandidates number of valid entries in candidates
+         * @return the best partner or -1 if no swap is worth it
+         */
+        private int findPartner(int currentNode, int currentColor, int[] candidates, int numCandidates) {
+            int[] currentCounts = countColors(currentNode, currentNodeCounts);
+            double oldEnergyCurrentNode = energyFunction.energy(getDegree(currentNode, currentColor, currentCounts));
+            double maxSumNodeDegrees = 0;
+            int bestPartner = NO_PARTNER;
+
+            for (int c = 0; c < numCandidates; c++) {
+                int node = candidates[c];
+                int nodeColor = colors[node];
+                // If the colors are different
+                if (nodeColor != currentColor) {
+                    int migrationDelta = getMigrationDelta(currentNode, currentColor, node, nodeColor);
+                    if (migrations + migrationDelta > migrationBudget) {
+                        continue;
+                    }
+                    if (vertexWeights != null && !keepsBalance(currentColor, nodeColor,
+                            vertexWeights[currentNode] - vertexWeights[node])) {
+                        continue;
+                    }
+
+                    int[] nodeCounts = countColors(node, candidateCounts);
+                    double oldSumNodeDegrees = oldEnergyCurrentNode
+                            + energyFunction.energy(getDegree(node, nodeColor, nodeCounts));
+                    double newSumNodeDegrees = energyFunction.energy(getDegree(currentNode, nodeColor, currentCounts))
+                            + energyFunction.energy(getDegree(node, currentColor, nodeCounts))
+                            - migrationPenalty * migrationDelta;
+
+                    // Only test candidates that could become the best partner, which may draw a random number
+                    if (newSumNodeDegrees > maxSumNodeDegrees
+                            && acceptanceFunction.accept(oldSumNodeDegrees, newSumNodeDegrees, temperature, random)) {
+                        bestPartner = node;
+                        partnerColor = nodeColor;
+                        maxSumNodeDegrees = newSumNodeDegrees;
+                    }
+                }
+            }
+
+            return bestPartner;
+        }
+
+        /**
+         * Counts all colors of the neighbors of a hub in one pass. In parallel rounds the neighbors
+         * of the largest hubs are counted by several subtasks.
+         *
+         * @param counts buffer receiving the counts
+         * @return counts, or null if the node is not a hub and should be scanned per color
+         */
+        private int[] countColors(int node, int[] counts) {
+            if (hubSplitDegree > 0 && threads > 1 && offsets[node + 1] - offsets[node] >= hubSplitDegree) {
+                return colorCounter.countInParallel(node, counts);
+            }
+            return colorCounter.isHub(node) ? colorCounter.count(node, counts) : null;
+        }
+
+        /**
+         * @param counts the color counts of the node, or null to scan its neighbors
+         */
+        private int getDegree(int node, int colorId, int[] counts) {
+            if (counts == null) {
+                return Jabeja.this.getDegree(node, colorId);
+            }
+            if (colorAffinity == null) {
+                return counts[colorId];
+            }
+            int degree = 0;
+            int row = colorId * numPartitions;
+            for (int color = 0; color < numPartitions; color++) {
+                degree += colorAffinity[row + color] * counts[color];
+            }
+            return degree;
+        }
+
+        /**
+         * Fills the uniform sample buffer with a uniformly random sample of the graph
+         *
+         * @param currentNode
+         * @return the number of sampled nodes
+         */
+        private int getSample(int currentNode) {
+            int neighborsSampleSize = uniformSample.length;
+            int count = 0;
+
+            // Get neighborsSampleSize unique nodes from the graph excluding currentNode
+            while (count < neighborsSampleSize) {
+                int rndId = random.nextInt(numNodes);
+                if (rndId != currentNode && !contains(uniformSample, count, rndId)) {
+                    uniformSample[count++] = rndId;
                 }
+            }
+            return count;
+        }
 
-            } while (neighborsSampleSize != 0);
+        /**
+         * Fills the uniform sample buffer with boundary nodes drawn uniformly at random, only of the
+         * other colors with {@link BoundarySamplingPolicy#BY_COLOR}. The sample is smaller than the
+         * buffer when the boundary is.
+         *
+         * @param currentNode
+         * @param currentColor color of the node
+         * @return the number of sampled nodes
+         */
+        private int getBoundarySample(int currentNode, int currentColor) {
+            int sampleSize = uniformSample.length;
+            int count = 0;
+
+            for (int attempt = 0; attempt < sampleSize * BOUNDARY_SAMPLE_ATTEMPTS && count < sampleSize; attempt++) {
+                int rndId = boundarySamplingPolicy == BoundarySamplingPolicy.BY_COLOR
+                        ? boundaryIndex.sampleOtherColor(currentColor, random)
+                        : boundaryIndex.sample(random);
+                if (rndId == BoundaryIndex.NO_NODE) {
+                    break;
+                }
+                if (rndId != currentNode && !contains(uniformSample, count, rndId)) {
+                    uniformSample[count++] = rndId;
+                }
+            }
+            return count;
         }
 
-        Integer[] ids = new Integer[rndIds.size()];
-        return rndIds.toArray(ids);
+        /**
+         * Fills the neighbor sample buffer with random neighbors. The number of random neighbors is controlled using
+         * -closeByNeighbors command line argument which can be obtained from the config
+         * using {@link Config#getRandomNeighborSampleSize()}
+         *
+         * @param currentNode
+         * @return the number of sampled neighbors
+         */
+        private int getNeighbors(int currentNode) {
+            int start = offsets[currentNode];
+            int neighborsSize = offsets[currentNode + 1] - start;
+            int neighborsSampleSize = neighborSample.length;
+
+            // If there are less neighbors than the random sample size, take all
+            if (neighborsSize <= neighborsSampleSize) {
+                System.arraycopy(adjacency, start, neighborSample, 0, neighborsSize);
+                return neighborsSize;
+            }
+
+            // If there are more neighbors than the sample size, do reservoir sampling
+            int count = 0;
+            while (count < neighborsSampleSize) {
+                int rndId = adjacency[start + random.nextInt(neighborsSize)];
+                if (!contains(neighborSample, count, rndId)) {
+                    neighborSample[count++] = rndId;
+                }
+            }
+            return count;
+        }
     }
 
 
     /**
-     * Generate a report which is stored in a file in the output dir.
+     * Generate a report which is passed to the progress listener.
      *
-     * @throws IOException
+     * @return state of the current round
      */
-    private void report() throws IOException {
-        int grayLinks = 0;
-        int migrations = 0; // number of nodes that have changed the initial color
-        int size = entireGraph.size();
-
-        for (int i : entireGraph.keySet()) {
-            Node node = entireGraph.get(i);
-            int nodeColor = node.getColor();
-            ArrayList<Integer> nodeNeighbours = node.getNeighbours();
-
-            if (nodeColor != node.getInitColor()) {
-                migrations++;
-            }
-
-            if (nodeNeighbours != null) {
-                for (int n : nodeNeighbours) {
-                    Node p = entireGraph.get(n);
-                    int pColor = p.getColor();
-
-                    if (nodeColor != pColor)
-                        grayLinks++;
+    private RoundReport report() {
+        long grayLinks = 0;
+        long topologyCost = 0;
+
+        for (int node = 0; node < numNodes; node++) {
+            int nodeColor = colors[node];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int neighborColor = colors[adjacency[i]];
+                if (nodeColor != neighborColor) {
+                    int weight = edgeWeights == null ? 1 : edgeWeights[i];
+                    grayLinks += weight;
+                    if (topology != null) {
+                        topologyCost += (long) weight * topology.getDistance(nodeColor, neighborColor);
+                    }
                 }
             }
         }
 
-        int edgeCut = grayLinks / 2;
+        long edgeCut = grayLinks / 2;
+        topologyCost = topology != null ? topologyCost / 2 : -1;
 
+        double imbalance = getImbalance();
         logger.info("round: " + round +
                 ", edge cut:" + edgeCut +
+                (topology != null ? ", topology cost: " + topologyCost : "") +
                 ", swaps: " + numberOfSwaps +
-                ", migrations: " + migrations);
-
-        saveToFile(edgeCut, migrations, CSV_FILE);
-        saveToFile(edgeCut, migrations, TEXT_FILE);
-    }
-
-    private void saveToFile(int edgeCuts, int migrations, String delimiter) throws IOException {
-        String outputFilePath;
-
-        //output file name
-        File inputFile = new File(config.getGraphFilePath());
-        outputFilePath = config.getOutputDir() +
-                File.separator +
-                inputFile.getName() + "_" +
-//                config.getNodeSelectionPolicy() + "_" +
-//                "GICP" + "_" + config.getGraphInitialColorPolicy() + "_" +
-                "T" + "_" + config.getTemperature() + "_" +
-                "AP" + "_" + config.getUseAcceptanceProbability() + "_" +
-                "R" + "_" + config.getResetEachNIteration() + "_" +
-                "D" + "_" + config.getDelta() + "_" +
-//                "RNSS" + "_" + config.getRandomNeighborSampleSize() + "_" +
-//                "URSS" + "_" + config.getUniformRandomSampleSize() + "_" +
-                "A" + "_" + config.getAlpha() + "_" +
-//                "R" + "_" + config.getRounds() +
-                (delimiter.equals(CSV_FILE) ? ".csv" : ".txt");
-
-        if (!resultFileCreated) {
-            File outputDir = new File(config.getOutputDir());
-            if (!outputDir.exists()) {
-                if (!outputDir.mkdir()) {
-                    throw new IOException("Unable to create the output directory");
-                }
-            }
-            // create folder and result file with header
-            String header = "# Migration is number of nodes that have changed color.";
-            header += "\n\nRound" + delimiter + "Edge-Cut" + delimiter + "Swaps" + delimiter + "Migrations" + delimiter + "Skipped" + "\n";
-            FileIO.write(header, outputFilePath);
-            resultFileCreated = true;
+                ", migrations: " + migrations +
+                (oneWayMoves ? ", moves: " + numberOfMoves : "") +
+                (oneWayMoves || vertexWeights != null ? ", imbalance: " + String.format("%.4f", imbalance) : ""));
+
+        RoundReport report = new RoundReport(round, edgeCut, topologyCost, numberOfSwaps, migrations, numberOfMoves,
+                imbalance, temperature);
+        if (listener != null) {
+            listener.onRound(report);
         }
-
-        FileIO.append(round + delimiter + (edgeCuts) + delimiter + numberOfSwaps + delimiter + migrations + "\n", outputFilePath);
+        return report;
     }
 }
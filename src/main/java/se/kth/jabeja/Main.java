@@ -1,14 +1,25 @@
 package se.kth.jabeja;
 
 import org.apache.log4j.Logger;
+import se.kth.jabeja.analysis.PartitionAnalyzer;
+import se.kth.jabeja.api.PartitionResult;
+import se.kth.jabeja.api.Partitioner;
+import se.kth.jabeja.benchmark.BenchmarkRunner;
+import se.kth.jabeja.generator.GraphGenerator;
+import se.kth.jabeja.graph.CsrGraph;
 import se.kth.jabeja.io.CLI;
 import se.kth.jabeja.io.GraphReader;
+import se.kth.jabeja.io.PartitionReader;
+import se.kth.jabeja.io.PartitionWriter;
+import se.kth.jabeja.io.ResultWriter;
+import se.kth.jabeja.io.SwapJournal;
+import se.kth.jabeja.io.SwapJournalReader;
+import se.kth.jabeja.service.PartitionService;
 import se.kth.jabeja.config.Config;
-import se.kth.jabeja.rand.RandNoGenerator;
+import se.kth.jabeja.config.Topology;
 
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
 
 
 public class Main {
@@ -19,8 +30,6 @@ public class Main {
      */
     private Config config;
 
-    HashMap<Integer, Node> graph;
-
     public static void main(String[] args) throws IOException {
         new Main().startApp(args);
     }
@@ -28,37 +37,145 @@ public class Main {
     private void startApp(String[] args) throws IOException {
         config = (new CLI()).parseArgs(args);
 
-        //set seed for the application
-        //Note for the results to be deterministic use
-        //only one random generator.
-        RandNoGenerator.setSeed(config.getSeed());
+        //serve partitioning jobs until the JVM is stopped
+        if (config.getDaemon()) {
+            startService();
+            return;
+        }
+
+        //measure quality against time on a directory of graphs, failing on a regression
+        if (config.hasBenchmarkDir()) {
+            if (!new BenchmarkRunner(config, args).run()) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        //write a synthetic graph instead of partitioning one
+        if (config.hasGenerateGraphFile()) {
+            new GraphGenerator(config).generate();
+            return;
+        }
 
         //read the input graph
-        HashMap<Integer, Node> graph = readGraph();
+        CsrGraph graph = readGraph();
+
+        //score an existing partition without running JaBeJa
+        if (config.hasAnalyzePartitionFile()) {
+            analyze(graph);
+            return;
+        }
+
+        //rebuild a coloring from a swap journal without running JaBeJa
+        if (config.hasReplayJournalFile()) {
+            replay(graph);
+            return;
+        }
 
         //start JaBeJa
         startJabeja(graph);
     }
 
+    /**
+     * starts the partitioning service, which keeps running in its own threads
+     *
+     * @throws IOException
+     */
+    private void startService() throws IOException {
+        final PartitionService service = new PartitionService(config);
+        service.start();
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                service.stop();
+            }
+        });
+    }
+
     /**
      * parses the input graph
      *
      * @return
      */
-    private HashMap<Integer, Node> readGraph() {
+    private CsrGraph readGraph() throws IOException {
         GraphReader graphReader = new GraphReader();
-        graph = graphReader.readGraph(config.getGraphFilePath(), config.getGraphInitialColorPolicy(), config.getNumPartitions());
-        return graph;
+        return graphReader.readGraph(config.getGraphFilePath());
+    }
+
+    /**
+     * @return the topology the partition is scored on, null if the partitions are equally distant
+     */
+    private Topology getTopology() {
+        return config.hasTopology() ? config.getTopology() : null;
     }
 
     /**
-     * start the jabeja algorithm
+     * computes the quality metrics of the partition to analyze
      *
      * @param graph
-     * @return
+     * @throws IOException
+     */
+    private void analyze(CsrGraph graph) throws IOException {
+        int[] colors = new PartitionReader().readPartition(config.getAnalyzePartitionFilePath(), graph.getNumNodes());
+        logger.info(config.getAnalyzePartitionFilePath() + ". "
+                + new PartitionAnalyzer().analyze(graph, colors, getTopology()));
+    }
+
+    /**
+     * rebuilds the coloring of a journaled run at the replay round, writes it to the output dir
+     * and lists the color changes of the traced node
+     *
+     * @param graph
+     * @throws IOException
+     */
+    private void replay(CsrGraph graph) throws IOException {
+        SwapJournalReader reader = new SwapJournalReader(config.getReplayJournalFilePath());
+        if (reader.getNumNodes() != graph.getNumNodes()) {
+            throw new IOException("The journal has " + reader.getNumNodes() + " nodes but the graph has "
+                    + graph.getNumNodes());
+        }
+        if (config.getTraceNode() > 0) {
+            if (config.getTraceNode() > graph.getNumNodes()) {
+                throw new IOException("Node " + config.getTraceNode() + " is not a node of the graph");
+            }
+            logger.info(reader.trace(config.getTraceNode() - 1));
+        }
+
+        int[] colors = reader.replay(config.getReplayRound());
+        File outputDir = new File(config.getOutputDir());
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IOException("Unable to create the output directory");
+        }
+        String name = new File(config.getReplayJournalFilePath()).getName()
+                + (config.getReplayRound() >= 0 ? "_round_" + config.getReplayRound() : "");
+        new PartitionWriter().writeText(colors, new File(outputDir, name + ".part." + reader.getNumPartitions()).getPath());
+        logger.info("Replayed partition. " + new PartitionAnalyzer().analyze(graph, colors, getTopology()));
+    }
+
+    /**
+     * start the jabeja algorithm, from an existing partition when resharding
+     *
+     * @param graph
+     * @throws IOException
      */
-    private void startJabeja(HashMap<Integer, Node> graph) throws IOException {
-        Jabeja host = new Jabeja(graph, config);
-        host.startJabeja();
+    private void startJabeja(CsrGraph graph) throws IOException {
+        ResultWriter resultWriter = new ResultWriter(config);
+        SwapJournal journal = config.hasJournalFile() ? new SwapJournal(config.getJournalFilePath()) : null;
+        Partitioner partitioner = new Partitioner(journal);
+        PartitionResult result;
+        try {
+            if (config.hasInitPartitionFile()) {
+                int[] colors = new PartitionReader().readPartition(config.getInitPartitionFilePath(), graph.getNumNodes());
+                result = partitioner.reshard(graph, colors, config, resultWriter);
+            } else {
+                result = partitioner.partition(graph, config, resultWriter);
+            }
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+        resultWriter.finish(result);
+        logger.info("Final partition. " + new PartitionAnalyzer().analyze(graph, result.getColors(), getTopology()));
     }
 }
@@ -0,0 +1,309 @@
+package se.kth.jabeja;
+
+import org.apache.log4j.Logger;
+
+import se.kth.jabeja.graph.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Turns an existing k-way partition into a balanced k'-way partition moving as few nodes as possible.
+ * <p>
+ * The k' largest old partitions stay where they are. When partitions are added,
+ * the overfull ones give away a connected region each, which seeds the new partitions.
+ * When partitions are removed, the nodes of the smallest ones are spread over the
+ * remaining partitions next to their neighbors. The result is the starting point
+ * of a JaBeJa run, which refines it with swaps that keep the balance.
+ */
+public class Resharder {
+    final static Logger logger = Logger.getLogger(Resharder.class);
+    private static final int UNASSIGNED = -1;
+
+    private final CsrGraph graph;
+    private final int[] offsets;
+    private final int[] adjacency;
+    private final int numPartitions;
+    private int[] colors;
+    private int[] initColors;
+    private int minMigrations;
+
+    public Resharder(CsrGraph graph, int numPartitions) {
+        this.graph = graph;
+        this.offsets = graph.getOffsets();
+        this.adjacency = graph.getAdjacency();
+        this.numPartitions = numPartitions;
+    }
+
+    /**
+     * Colors the graph with numPartitions balanced colors starting from an existing partition.
+     * The initial color of every node becomes the (relabeled) partition it was in, or -1 if that
+     * partition was removed, so migrations are counted against the existing partition.
+     *
+     * @param oldColors existing partition indexed by node
+     * @return number of nodes that had to move
+     */
+    public int reshard(final int[] oldColors) {
+        int numNodes = graph.getNumNodes();
+        if (oldColors.length != numNodes) {
+            throw new IllegalArgumentException("The partition has " + oldColors.length + " entries but the graph has "
+                    + numNodes + " nodes");
+        }
+        int oldNumPartitions = 0;
+        for (int node = 0; node < numNodes; node++) {
+            if (oldColors[node] < 0) {
+                throw new IllegalArgumentException("Node " + (node + 1) + " has the negative color " + oldColors[node]);
+            }
+            oldNumPartitions = Math.max(oldNumPartitions, oldColors[node] + 1);
+        }
+        final int[] oldSizes = new int[oldNumPartitions];
+        for (int color : oldColors) {
+            oldSizes[color]++;
+        }
+
+        int[] labels = relabel(oldSizes);
+        int[] capacities = getCapacities(numNodes, oldSizes, labels);
+
+        colors = new int[numNodes];
+        initColors = new int[numNodes];
+        int[] sizes = new int[numPartitions];
+        for (int v = 0; v < numNodes; v++) {
+            int label = labels[oldColors[v]];
+            initColors[v] = label;
+            colors[v] = label;
+            if (label != UNASSIGNED) {
+                sizes[label]++;
+            }
+        }
+
+        minMigrations = numNodes;
+        for (int color = 0; color < numPartitions; color++) {
+            minMigrations -= Math.min(sizes[color], capacities[color]);
+            if (sizes[color] > capacities[color]) {
+                evictRegion(color, sizes[color] - capacities[color]);
+                sizes[color] = capacities[color];
+            }
+        }
+
+        int[] remaining = new int[numPartitions];
+        for (int color = 0; color < numPartitions; color++) {
+            remaining[color] = capacities[color] - sizes[color];
+        }
+        int moved = assignUnassigned(remaining);
+
+        logger.info("Resharded " + oldNumPartitions + " -> " + numPartitions + " partitions. Moved nodes: "
+                + moved + ", theoretical minimum: " + minMigrations + ", edge cut: " + getEdgeCut());
+        return moved;
+    }
+
+    /**
+     * @return the new partition, indexed by node
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * @return the relabeled old partition of every node, -1 for nodes of removed partitions
+     */
+    public int[] getInitColors() {
+        return initColors;
+    }
+
+    /**
+     * @return the smallest number of nodes any balanced k'-way partition has to move
+     */
+    public int getMinMigrations() {
+        return minMigrations;
+    }
+
+    /**
+     * Maps every old color to a new one. The largest old partitions are kept and keep their
+     * color if it is still in range, the others take the free colors. Removed partitions map to -1.
+     */
+    private int[] relabel(final int[] oldSizes) {
+        List<Integer> bySize = new ArrayList<>();
+        for (int color = 0; color < oldSizes.length; color++) {
+            bySize.add(color);
+        }
+        Collections.sort(bySize, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer c1, Integer c2) {
+                return oldSizes[c1] != oldSizes[c2] ? Integer.compare(oldSizes[c2], oldSizes[c1]) : Integer.compare(c1, c2);
+            }
+        });
+
+        int[] labels = new int[oldSizes.length];
+        Arrays.fill(labels, UNASSIGNED);
+        boolean[] used = new boolean[numPartitions];
+        List<Integer> kept = bySize.subList(0, Math.min(numPartitions, bySize.size()));
+        for (int color : kept) {
+            if (color < numPartitions) {
+                labels[color] = color;
+                used[color] = true;
+            }
+        }
+        int free = 0;
+        for (int color : kept) {
+            if (labels[color] == UNASSIGNED) {
+                while (used[free]) {
+                    free++;
+                }
+                labels[color] = free;
+                used[free] = true;
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Balanced sizes of the new partitions. When the nodes do not divide evenly,
+     * the extra nodes go to the partitions that were largest before.
+     */
+    private int[] getCapacities(int numNodes, final int[] oldSizes, int[] labels) {
+        final int[] keptSizes = new int[numPartitions];
+        for (int color = 0; color < oldSizes.length; color++) {
+            if (labels[color] != UNASSIGNED) {
+                keptSizes[labels[color]] = oldSizes[color];
+            }
+        }
+        List<Integer> bySize = new ArrayList<>();
+        for (int color = 0; color < numPartitions; color++) {
+            bySize.add(color);
+        }
+        Collections.sort(bySize, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer c1, Integer c2) {
+                return Integer.compare(keptSizes[c2], keptSizes[c1]);
+            }
+        });
+
+        int[] capacities = new int[numPartitions];
+        int extra = numNodes % numPartitions;
+        for (int i = 0; i < numPartitions; i++) {
+            capacities[bySize.get(i)] = numNodes / numPartitions + (i < extra ? 1 : 0);
+        }
+        return capacities;
+    }
+
+    /**
+     * Unassigns a connected region of the given color, grown from its boundary nodes,
+     * so the region can move together to a new partition.
+     */
+    private void evictRegion(int color, int count) {
+        List<Integer> candidates = new ArrayList<>();
+        final long[] internalDegrees = new long[colors.length];
+        for (int v = 0; v < colors.length; v++) {
+            if (colors[v] == color) {
+                candidates.add(v);
+                internalDegrees[v] = getDegree(v, color);
+            }
+        }
+        Collections.sort(candidates, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer v1, Integer v2) {
+                return Long.compare(internalDegrees[v1], internalDegrees[v2]);
+            }
+        });
+
+        int[] queue = new int[count];
+        for (int seed : candidates) {
+            if (count == 0) {
+                break;
+            }
+            if (colors[seed] != color) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            colors[seed] = UNASSIGNED;
+            count--;
+            queue[tail++] = seed;
+            while (head < tail && count > 0) {
+                int v = queue[head++];
+                for (int i = offsets[v]; i < offsets[v + 1] && count > 0; i++) {
+                    int u = adjacency[i];
+                    if (colors[u] == color) {
+                        colors[u] = UNASSIGNED;
+                        count--;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Assigns the unassigned nodes in BFS order, each to the partition with spare capacity
+     * holding most of its neighbors, or the one with most spare capacity if there is none.
+     *
+     * @return number of nodes assigned
+     */
+    private int assignUnassigned(int[] remaining) {
+        int assigned = 0;
+        int[] queue = new int[colors.length];
+        boolean[] queued = new boolean[colors.length];
+        int[] neighborColors = new int[numPartitions];
+
+        for (int seed = 0; seed < colors.length; seed++) {
+            if (colors[seed] != UNASSIGNED || queued[seed]) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            queued[seed] = true;
+            while (head < tail) {
+                int v = queue[head++];
+                Arrays.fill(neighborColors, 0);
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int u = adjacency[i];
+                    if (colors[u] != UNASSIGNED) {
+                        neighborColors[colors[u]] += graph.getEdgeWeight(i);
+                    } else if (!queued[u]) {
+                        queue[tail++] = u;
+                        queued[u] = true;
+                    }
+                }
+
+                int best = UNASSIGNED;
+                for (int color = 0; color < numPartitions; color++) {
+                    if (remaining[color] > 0 && (best == UNASSIGNED
+                            || neighborColors[color] > neighborColors[best]
+                            || (neighborColors[color] == neighborColors[best] && remaining[color] > remaining[best]))) {
+                        best = color;
+                    }
+                }
+                colors[v] = best;
+                remaining[best]--;
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    private long getEdgeCut() {
+        long grayLinks = 0;
+        for (int v = 0; v < colors.length; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (colors[adjacency[i]] != colors[v]) {
+                    grayLinks += graph.getEdgeWeight(i);
+                }
+            }
+        }
+        return grayLinks / 2;
+    }
+
+    private long getDegree(int node, int colorId) {
+        long degree = 0;
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            if (colors[adjacency[i]] == colorId) {
+                degree += graph.getEdgeWeight(i);
+            }
+        }
+        return degree;
+    }
+}
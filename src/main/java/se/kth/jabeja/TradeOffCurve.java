@@ -0,0 +1,76 @@
+package se.kth.jabeja;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pareto front of the (edge cut, migrations) pairs seen during a run. With a topology the
+ * edge cut of the points is the topology cost.
+ * A point is kept only if no other point has both a lower or equal edge cut
+ * and lower or equal migrations.
+ */
+public class TradeOffCurve {
+
+    public static class Point {
+        private final int round;
+        private final long edgeCut;
+        private final int migrations;
+
+        Point(int round, long edgeCut, int migrations) {
+            this.round = round;
+            this.edgeCut = edgeCut;
+            this.migrations = migrations;
+        }
+
+        public int getRound() {
+            return round;
+        }
+
+        public long getEdgeCut() {
+            return edgeCut;
+        }
+
+        public int getMigrations() {
+            return migrations;
+        }
+    }
+
+    private final List<Point> points = new ArrayList<>();
+
+    /**
+     * Adds the state of a round to the curve if it is not dominated
+     *
+     * @return true if the point is part of the front
+     */
+    public boolean add(int round, long edgeCut, int migrations) {
+        for (Point point : points) {
+            if (point.edgeCut <= edgeCut && point.migrations <= migrations) {
+                return false;
+            }
+        }
+        for (int i = points.size() - 1; i >= 0; i--) {
+            Point point = points.get(i);
+            if (edgeCut <= point.edgeCut && migrations <= point.migrations) {
+                points.remove(i);
+            }
+        }
+        points.add(new Point(round, edgeCut, migrations));
+        return true;
+    }
+
+    /**
+     * @return the front ordered by increasing migrations, hence decreasing edge cut
+     */
+    public List<Point> getPoints() {
+        List<Point> sorted = new ArrayList<>(points);
+        Collections.sort(sorted, new Comparator<Point>() {
+            @Override
+            public int compare(Point p1, Point p2) {
+                return Integer.compare(p1.migrations, p2.migrations);
+            }
+        });
+        return sorted;
+    }
+}
@@ -0,0 +1,185 @@
+package se.kth.jabeja.analysis;
+
+import se.kth.jabeja.config.Topology;
+import se.kth.jabeja.graph.CsrGraph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes the quality metrics of a partition in parallel. The nodes are split
+ * in ranges of ids with fork/join and the per-range metrics are merged.
+ */
+public class PartitionAnalyzer {
+    /**
+     * Ranges with at most this many nodes are analyzed sequentially
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    /**
+     * Pool owned by the caller, or null to run every analysis on a pool of its own
+     */
+    private final ForkJoinPool pool;
+
+    public PartitionAnalyzer() {
+        this(null);
+    }
+
+    /**
+     * @param pool pool the analyses run on, shut down by the caller
+     */
+    public PartitionAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param graph  the partitioned graph
+     * @param colors colors indexed by node
+     * @return quality metrics of the partition
+     */
+    public PartitionQuality analyze(CsrGraph graph, int[] colors) {
+        return analyze(graph, colors, null);
+    }
+
+    /**
+     * @param graph    the partitioned graph
+     * @param colors   colors indexed by node
+     * @param topology hierarchy the partitions are placed on, to break the cut down per level, may be null
+     * @return quality metrics of the partition
+     */
+    public PartitionQuality analyze(CsrGraph graph, int[] colors, Topology topology) {
+        if (colors.length != graph.getNumNodes()) {
+            throw new IllegalArgumentException("The partition has " + colors.length + " entries but the graph has "
+                    + graph.getNumNodes() + " nodes");
+        }
+        int numPartitions = 0;
+        for (int color : colors) {
+            numPartitions = Math.max(numPartitions, color + 1);
+        }
+        if (topology != null) {
+            if (numPartitions > topology.getNumPartitions()) {
+                throw new IllegalArgumentException("The partition has " + numPartitions
+                        + " colors but the topology only " + topology.getNumPartitions());
+            }
+            numPartitions = topology.getNumPartitions();
+        }
+
+        ForkJoinPool analysisPool = pool != null ? pool : new ForkJoinPool();
+        Metrics metrics;
+        try {
+            metrics = analysisPool.invoke(new AnalyzeTask(graph, colors, numPartitions, topology, 0, colors.length));
+        } finally {
+            if (analysisPool != pool) {
+                analysisPool.shutdown();
+            }
+        }
+        if (topology == null) {
+            return new PartitionQuality(numPartitions, metrics.grayLinks / 2, metrics.cutEdges / 2,
+                    metrics.communicationVolume, metrics.sizes, metrics.weights, metrics.boundary);
+        }
+        long[] levelCuts = new long[topology.getNumLevels()];
+        for (int level = 0; level < levelCuts.length; level++) {
+            levelCuts[level] = metrics.levelCuts[level] / 2;
+        }
+        return new PartitionQuality(numPartitions, metrics.grayLinks / 2, metrics.cutEdges / 2,
+                metrics.communicationVolume, metrics.sizes, metrics.weights, metrics.boundary, topology, levelCuts);
+    }
+
+    private static class Metrics {
+        long grayLinks;
+        long cutEdges;
+        long communicationVolume;
+        final int[] sizes;
+        final long[] weights;
+        final int[] boundary;
+        final long[] levelCuts;
+
+        Metrics(int numPartitions, Topology topology) {
+            sizes = new int[numPartitions];
+            weights = new long[numPartitions];
+            boundary = new int[numPartitions];
+            levelCuts = topology != null ? new long[topology.getNumLevels()] : null;
+        }
+
+        Metrics merge(Metrics other) {
+            grayLinks += other.grayLinks;
+            cutEdges += other.cutEdges;
+            communicationVolume += other.communicationVolume;
+            for (int color = 0; color < sizes.length; color++) {
+                sizes[color] += other.sizes[color];
+                weights[color] += other.weights[color];
+                boundary[color] += other.boundary[color];
+            }
+            for (int level = 0; levelCuts != null && level < levelCuts.length; level++) {
+                levelCuts[level] += other.levelCuts[level];
+            }
+            return this;
+        }
+    }
+
+    private static class AnalyzeTask extends RecursiveTask<Metrics> {
+        private static final long serialVersionUID = 1L;
+
+        private final CsrGraph graph;
+        private final int[] colors;
+        private final int numPartitions;
+        private final Topology topology;
+        private final int from;
+        private final int to;
+
+        AnalyzeTask(CsrGraph graph, int[] colors, int numPartitions, Topology topology, int from, int to) {
+            this.graph = graph;
+            this.colors = colors;
+            this.numPartitions = numPartitions;
+            this.topology = topology;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Metrics compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return computeSequentially();
+            }
+            int middle = (from + to) >>> 1;
+            AnalyzeTask left = new AnalyzeTask(graph, colors, numPartitions, topology, from, middle);
+            AnalyzeTask right = new AnalyzeTask(graph, colors, numPartitions, topology, middle, to);
+            left.fork();
+            Metrics rightMetrics = right.compute();
+            return left.join().merge(rightMetrics);
+        }
+
+        private Metrics computeSequentially() {
+            Metrics metrics = new Metrics(numPartitions, topology);
+            int[] offsets = graph.getOffsets();
+            int[] adjacency = graph.getAdjacency();
+            // partitions already counted for the current node (node + 1, so 0 is never seen)
+            int[] seen = new int[numPartitions];
+            for (int v = from; v < to; v++) {
+                int color = colors[v];
+                metrics.sizes[color]++;
+                metrics.weights[color] += graph.getVertexWeight(v);
+                boolean isBoundary = false;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int neighborColor = colors[adjacency[i]];
+                    if (neighborColor != color) {
+                        metrics.grayLinks += graph.getEdgeWeight(i);
+                        metrics.cutEdges++;
+                        if (topology != null) {
+                            metrics.levelCuts[topology.getLevel(color, neighborColor)] += graph.getEdgeWeight(i);
+                        }
+                        isBoundary = true;
+                        if (seen[neighborColor] != v + 1) {
+                            seen[neighborColor] = v + 1;
+                            metrics.communicationVolume++;
+                        }
+                    }
+                }
+                if (isBoundary) {
+                    metrics.boundary[color]++;
+                }
+            }
+            return metrics;
+        }
+    }
+}
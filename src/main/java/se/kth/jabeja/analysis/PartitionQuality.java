@@ -0,0 +1,150 @@
+package se.kth.jabeja.analysis;
+
+import se.kth.jabeja.config.Topology;
+
+/**
+ * Quality metrics of a partition of a graph
+ */
+public class PartitionQuality {
+    private final int numPartitions;
+    private final long edgeCut;
+    private final long cutEdges;
+    private final long communicationVolume;
+    private final int[] partitionSizes;
+    private final long[] partitionWeights;
+    private final int[] boundaryVertices;
+    private final Topology topology;
+    private final long[] levelCuts;
+
+    PartitionQuality(int numPartitions, long edgeCut, long cutEdges, long communicationVolume, int[] partitionSizes,
+                     long[] partitionWeights, int[] boundaryVertices) {
+        this(numPartitions, edgeCut, cutEdges, communicationVolume, partitionSizes, partitionWeights,
+                boundaryVertices, null, null);
+    }
+
+    PartitionQuality(int numPartitions, long edgeCut, long cutEdges, long communicationVolume, int[] partitionSizes,
+                     long[] partitionWeights, int[] boundaryVertices, Topology topology, long[] levelCuts) {
+        this.topology = topology;
+        this.levelCuts = levelCuts;
+        this.numPartitions = numPartitions;
+        this.edgeCut = edgeCut;
+        this.cutEdges = cutEdges;
+        this.communicationVolume = communicationVolume;
+        this.partitionSizes = partitionSizes;
+        this.partitionWeights = partitionWeights;
+        this.boundaryVertices = boundaryVertices;
+    }
+
+    public int getNumPartitions() {
+        return numPartitions;
+    }
+
+    /**
+     * @return total weight of the edges whose endpoints have different colors
+     */
+    public long getEdgeCut() {
+        return edgeCut;
+    }
+
+    /**
+     * @return number of edges whose endpoints have different colors, equal to the edge cut without edge weights
+     */
+    public long getCutEdges() {
+        return cutEdges;
+    }
+
+    /**
+     * @return sum over all nodes of the number of other partitions their neighbors are in,
+     * i.e. how many copies of node data have to be sent between partitions
+     */
+    public long getCommunicationVolume() {
+        return communicationVolume;
+    }
+
+    public int[] getPartitionSizes() {
+        return partitionSizes;
+    }
+
+    /**
+     * @return per partition, the sum of the vertex weights (equal to the sizes on unweighted graphs)
+     */
+    public long[] getPartitionWeights() {
+        return partitionWeights;
+    }
+
+    /**
+     * @return per partition, the number of nodes with at least one neighbor in another partition
+     */
+    public int[] getBoundaryVertices() {
+        return boundaryVertices;
+    }
+
+    /**
+     * @return per level of the topology, outermost first, the (weighted) edge cut crossing it; null without a topology
+     */
+    public long[] getLevelCuts() {
+        return levelCuts;
+    }
+
+    /**
+     * @return sum of the cut per level times the cost of the level, the edge cut without a topology
+     */
+    public long getTopologyCost() {
+        if (topology == null) {
+            return edgeCut;
+        }
+        long cost = 0;
+        for (int level = 0; level < levelCuts.length; level++) {
+            cost += levelCuts[level] * topology.getLevelCost(level);
+        }
+        return cost;
+    }
+
+    public int getTotalBoundaryVertices() {
+        int total = 0;
+        for (int count : boundaryVertices) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return weight of the heaviest partition divided by the average weight (1 is perfectly balanced)
+     */
+    public double getImbalance() {
+        long total = 0;
+        long max = 0;
+        for (long weight : partitionWeights) {
+            total += weight;
+            max = Math.max(max, weight);
+        }
+        return total == 0 ? 1 : max / ((double) total / numPartitions);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("partitions: ").append(numPartitions)
+                .append(", edge cut: ").append(edgeCut);
+        if (cutEdges != edgeCut) {
+            sb.append(", cut edges: ").append(cutEdges);
+        }
+        sb.append(", communication volume: ").append(communicationVolume)
+                .append(", boundary vertices: ").append(getTotalBoundaryVertices())
+                .append(", imbalance: ").append(String.format("%.4f", getImbalance()));
+        if (topology != null) {
+            sb.append("\ntopology: ").append(topology).append(", cost: ").append(getTopologyCost())
+                    .append(", cut per level:");
+            for (int level = 0; level < levelCuts.length; level++) {
+                sb.append(level == 0 ? " " : " / ").append(levelCuts[level]);
+            }
+        }
+        for (int color = 0; color < numPartitions; color++) {
+            sb.append("\n[ Color: ").append(color)
+                    .append(", Size: ").append(partitionSizes[color])
+                    .append(", Weight: ").append(partitionWeights[color])
+                    .append(", Boundary: ").append(boundaryVertices[color]).append(" ]");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package se.kth.jabeja.annealing;
+
+/**
+ * Reheats once the fraction of nodes that swap their color has stayed
+ * below a minimum rate for a number of consecutive rounds.
+ */
+public class AcceptanceRateCoolingSchedule extends AdaptiveCoolingSchedule {
+    private final double minSwapRate;
+    private final int stallRounds;
+    private int roundsBelowRate = 0;
+
+    public AcceptanceRateCoolingSchedule(CoolingSchedule base, double initialTemperature, double minTemperature,
+                                         double minSwapRate, int stallRounds) {
+        super(base, initialTemperature, minTemperature);
+        this.minSwapRate = minSwapRate;
+        this.stallRounds = stallRounds;
+    }
+
+    @Override
+    protected boolean isStalled(int round, double swapRate, long edgeCut) {
+        if (swapRate < minSwapRate) {
+            roundsBelowRate++;
+        } else {
+            roundsBelowRate = 0;
+        }
+        return roundsBelowRate >= stallRounds;
+    }
+
+    @Override
+    protected void onReheat(int round) {
+        roundsBelowRate = 0;
+    }
+}
@@ -0,0 +1,44 @@
+package se.kth.jabeja.annealing;
+
+/**
+ * Cools down with a base schedule and reheats to the initial temperature
+ * only when the search stalls. What a stall is depends on the subclass.
+ */
+public abstract class AdaptiveCoolingSchedule implements CoolingSchedule {
+    private final CoolingSchedule base;
+    private final double initialTemperature;
+    private final double minTemperature;
+    private int reheats = 0;
+
+    protected AdaptiveCoolingSchedule(CoolingSchedule base, double initialTemperature, double minTemperature) {
+        this.base = base;
+        this.initialTemperature = initialTemperature;
+        this.minTemperature = minTemperature;
+    }
+
+    @Override
+    public double nextTemperature(double temperature, int round, double swapRate, long edgeCut) {
+        boolean stalled = isStalled(round, swapRate, edgeCut);
+        // Reheating while still hot would only undo the cooling done so far
+        if (stalled && temperature <= minTemperature) {
+            reheats++;
+            onReheat(round);
+            return initialTemperature;
+        }
+        return base.nextTemperature(temperature, round, swapRate, edgeCut);
+    }
+
+    /**
+     * @return true if the search made no progress recently
+     */
+    protected abstract boolean isStalled(int round, double swapRate, long edgeCut);
+
+    /**
+     * Called when the temperature is reset, so the stall detection can start over
+     */
+    protected abstract void onReheat(int round);
+
+    public int getReheats() {
+        return reheats;
+    }
+}
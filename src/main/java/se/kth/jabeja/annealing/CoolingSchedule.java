@@ -0,0 +1,17 @@
+package se.kth.jabeja.annealing;
+
+/**
+ * Computes the simulated annealing temperature of the next round
+ * from the outcome of the round that has just completed.
+ */
+public interface CoolingSchedule {
+
+    /**
+     * @param temperature  temperature used in the completed round
+     * @param round        index of the completed round
+     * @param swapRate     fraction of the nodes that swapped their color in the round
+     * @param edgeCut      edge cut after the round
+     * @return temperature of the next round
+     */
+    double nextTemperature(double temperature, int round, double swapRate, long edgeCut);
+}
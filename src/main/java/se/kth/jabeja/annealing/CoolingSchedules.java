@@ -0,0 +1,87 @@
+package se.kth.jabeja.annealing;
+
+import se.kth.jabeja.config.Config;
+import se.kth.jabeja.config.CoolingPolicy;
+
+/**
+ * Creates the cooling schedule selected in the config
+ */
+public class CoolingSchedules {
+
+    /**
+     * Delta of the linear decay, also the base of the adaptive schedules, as in the original JaBeJa
+     */
+    public static final float DEFAULT_DELTA = (float) 0.01;
+    /**
+     * Cooling factor of the exponential schedule without the acceptance probability
+     */
+    public static final float DEFAULT_EXPONENTIAL_FACTOR = (float) 0.97;
+    /**
+     * Delta of the logarithmic schedule
+     */
+    public static final float DEFAULT_LOGARITHMIC_DELTA = (float) 0.5;
+
+    private CoolingSchedules() {
+    }
+
+    /**
+     * @return the delta of the config, or the default of its cooling schedule if it is not set
+     */
+    public static float getDelta(Config config) {
+        if (config.hasDelta()) {
+            return config.getDelta();
+        }
+        switch (config.getCoolingPolicy()) {
+            case EXPONENTIAL:
+                // with the acceptance probability the original JaBeJa multiplies by delta
+                return config.getUseAcceptanceProbability() ? DEFAULT_DELTA : DEFAULT_EXPONENTIAL_FACTOR;
+            case LOGARITHMIC:
+                return DEFAULT_LOGARITHMIC_DELTA;
+            default:
+                return DEFAULT_DELTA;
+        }
+    }
+
+    /**
+     * Lowest temperature the annealing reaches. With the acceptance probability the
+     * temperature scales the exponent, otherwise it multiplies the new utility, so
+     * 1 means only improving swaps are accepted.
+     */
+    public static double getMinTemperature(Config config) {
+        return config.getUseAcceptanceProbability() ? 0.00001 : 1;
+    }
+
+    public static CoolingSchedule create(Config config) {
+        double initialTemperature = config.getTemperature();
+        double delta = getDelta(config);
+        double minTemperature = getMinTemperature(config);
+        CoolingPolicy policy = config.getCoolingPolicy();
+
+        switch (policy) {
+            case LINEAR:
+                return new LinearCoolingSchedule(delta, minTemperature);
+            case EXPONENTIAL:
+                return new ExponentialCoolingSchedule(delta, minTemperature);
+            case LOGARITHMIC:
+                return new LogarithmicCoolingSchedule(initialTemperature, delta, minTemperature);
+            case ADAPTIVE_ACCEPTANCE:
+                return new AcceptanceRateCoolingSchedule(createBase(config, minTemperature), initialTemperature,
+                        minTemperature, config.getMinSwapRate(), config.getStallRounds());
+            case ADAPTIVE_EDGE_CUT:
+                return new EdgeCutProgressCoolingSchedule(createBase(config, minTemperature), initialTemperature,
+                        minTemperature, config.getStallRounds());
+            default:
+                throw new UnsupportedOperationException(policy + " cooling is not implemented");
+        }
+    }
+
+    /**
+     * The adaptive schedules decay in the same way the original JaBeJa annealing does
+     */
+    private static CoolingSchedule createBase(Config config, double minTemperature) {
+        if (config.getUseAcceptanceProbability()) {
+            return new ExponentialCoolingSchedule(getDelta(config), minTemperature);
+        }
+        return new LinearCoolingSchedule(getDelta(config), minTemperature);
+    }
+}
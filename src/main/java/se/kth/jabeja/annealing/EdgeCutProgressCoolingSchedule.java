@@ -0,0 +1,30 @@
+package se.kth.jabeja.annealing;
+
+/**
+ * Reheats once the edge cut has not improved for a number of consecutive rounds.
+ */
+public class EdgeCutProgressCoolingSchedule extends AdaptiveCoolingSchedule {
+    private final int stallRounds;
+    private long bestEdgeCut = Long.MAX_VALUE;
+    private int lastImprovementRound = 0;
+
+    public EdgeCutProgressCoolingSchedule(CoolingSchedule base, double initialTemperature, double minTemperature,
+                                          int stallRounds) {
+        super(base, initialTemperature, minTemperature);
+        this.stallRounds = stallRounds;
+    }
+
+    @Override
+    protected boolean isStalled(int round, double swapRate, long edgeCut) {
+        if (edgeCut < bestEdgeCut) {
+            bestEdgeCut = edgeCut;
+            lastImprovementRound = round;
+        }
+        return round - lastImprovementRound >= stallRounds;
+    }
+
+    @Override
+    protected void onReheat(int round) {
+        lastImprovementRound = round;
+    }
+}
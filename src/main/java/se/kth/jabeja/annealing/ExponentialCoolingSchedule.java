@@ -0,0 +1,24 @@
+package se.kth.jabeja.annealing;
+
+/**
+ * Multiplies the temperature by a constant factor each round
+ */
+public class ExponentialCoolingSchedule implements CoolingSchedule {
+    private final double factor;
+    private final double minTemperature;
+
+    public ExponentialCoolingSchedule(double factor, double minTemperature) {
+        if (factor <= 0 || factor >= 1) {
+            throw new IllegalArgumentException("Exponential cooling factor must be in (0, 1)");
+        }
+        this.factor = factor;
+        this.minTemperature = minTemperature;
+    }
+
+    @Override
+    public double nextTemperature(double temperature, int round, double swapRate, long edgeCut) {
+        // Without the acceptance probability the minimum is 1, and a temperature below it would
+        // turn down all but the swaps improving the utility many times over
+        return Math.max(minTemperature, temperature * factor);
+    }
+}
@@ -0,0 +1,23 @@
+package se.kth.jabeja.annealing;
+
+/**
+ * Decreases the temperature by a constant delta each round
+ */
+public class LinearCoolingSchedule implements CoolingSchedule {
+    private final double delta;
+    private final double minTemperature;
+
+    public LinearCoolingSchedule(double delta, double minTemperature) {
+        this.delta = delta;
+        this.minTemperature = minTemperature;
+    }
+
+    @Override
+    public double nextTemperature(double temperature, int round, double swapRate, long edgeCut) {
+        // As in the original JaBeJa the last step may go slightly below the minimum
+        if (temperature <= minTemperature) {
+            return temperature;
+        }
+        return temperature - delta;
+    }
+}
@@ -0,0 +1,28 @@
+package se.kth.jabeja.annealing;
+
+/**
+ * Slow cooling following T(r) = T0 / (1 + delta * ln(1 + r)).
+ * The schedule counts its own rounds, so a reheat restarts the curve.
+ */
+public class LogarithmicCoolingSchedule implements CoolingSchedule {
+    private final double initialTemperature;
+    private final double delta;
+    private final double minTemperature;
+    private int step = 0;
+
+    public LogarithmicCoolingSchedule(double initialTemperature, double delta, double minTemperature) {
+        this.initialTemperature = initialTemperature;
+        this.delta = delta;
+        this.minTemperature = minTemperature;
+    }
+
+    @Override
+    public double nextTemperature(double temperature, int round, double swapRate, long edgeCut) {
+        if (temperature >= initialTemperature) {
+            // started over, either at the beginning or after a reset
+            step = 0;
+        }
+        step++;
+        return Math.max(minTemperature, initialTemperature / (1 + delta * Math.log(1 + step)));
+    }
+}
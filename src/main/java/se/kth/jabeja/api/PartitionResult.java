@@ -0,0 +1,81 @@
+package se.kth.jabeja.api;
+
+/**
+ * Outcome of a partitioning run: the best coloring found and how it was reached
+ */
+public class PartitionResult {
+    private final int[] colors;
+    private final long edgeCut;
+    private final long topologyCost;
+    private final int bestRound;
+    private final int rounds;
+    private final int swaps;
+    private final int migrations;
+
+    /**
+     * @param topologyCost cost of the cut on the topology, -1 without a topology
+     */
+    public PartitionResult(int[] colors, long edgeCut, long topologyCost, int bestRound, int rounds, int swaps, int migrations) {
+        this.colors = colors;
+        this.edgeCut = edgeCut;
+        this.topologyCost = topologyCost;
+        this.bestRound = bestRound;
+        this.rounds = rounds;
+        this.swaps = swaps;
+        this.migrations = migrations;
+    }
+
+    /**
+     * @return the color of every node, indexed by node
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * @return edge cut, weighted if the graph has edge weights
+     */
+    public long getEdgeCut() {
+        return edgeCut;
+    }
+
+    /**
+     * @return cut of the topology run, every cut edge counting for the cost of the level it
+     * crosses, -1 without a topology
+     */
+    public long getTopologyCost() {
+        return topologyCost;
+    }
+
+    /**
+     * @return what the run minimized: the topology cost with a topology, the edge cut otherwise
+     */
+    public long getObjective() {
+        return topologyCost >= 0 ? topologyCost : edgeCut;
+    }
+
+    /**
+     * @return round in which the returned coloring was found (-1 if no round was run)
+     */
+    public int getBestRound() {
+        return bestRound;
+    }
+
+    /**
+     * @return number of rounds executed
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    public int getSwaps() {
+        return swaps;
+    }
+
+    /**
+     * @return number of nodes of the returned coloring that differ from their initial color
+     */
+    public int getMigrations() {
+        return migrations;
+    }
+}
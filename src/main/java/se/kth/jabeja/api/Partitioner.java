@@ -0,0 +1,151 @@
+package se.kth.jabeja.api;
+
+import org.apache.log4j.Logger;
+import se.kth.jabeja.Jabeja;
+import se.kth.jabeja.Resharder;
+import se.kth.jabeja.config.Config;
+import se.kth.jabeja.config.GraphInitColorPolicy;
+import se.kth.jabeja.graph.CsrGraph;
+
+import java.util.Random;
+
+/**
+ * Entry point to use JaBeJa as a library. Every call runs on its own copy of the colors
+ * with its own random generator seeded from the config, so the partitioner can be called
+ * any number of times, also concurrently, within one JVM. The graph is only read.
+ * <p>
+ * Only the algorithm parameters of the {@link Config} are used; the graph file path and
+ * output dir can be left unset. {@link Config#withDefaults()} gives the command line defaults.
+ */
+public class Partitioner {
+    final static Logger logger = Logger.getLogger(Partitioner.class);
+    private final SwapListener swapListener;
+
+    public Partitioner() {
+        this(null);
+    }
+
+    /**
+     * @param swapListener told of every color change of every run, may be null. It is called by
+     *                     concurrent runs at the same time if the partitioner is shared.
+     */
+    public Partitioner(SwapListener swapListener) {
+        this.swapListener = swapListener;
+    }
+
+    /**
+     * Partitions the graph starting from the colors given by the initial color policy
+     */
+    public PartitionResult partition(CsrGraph graph, Config config) {
+        return partition(graph, config, null);
+    }
+
+    /**
+     * Partitions the graph starting from the colors given by the initial color policy
+     *
+     * @param listener notified after every round, may be null
+     */
+    public PartitionResult partition(CsrGraph graph, Config config, ProgressListener listener) {
+        Random random = new Random(config.getSeed());
+        int[] colors = getInitialColors(graph.getNumNodes(), config.getNumPartitions(),
+                config.getGraphInitialColorPolicy(), random);
+        return run(graph, colors, colors.clone(), config, random, listener);
+    }
+
+    /**
+     * Partitions the graph starting from the given colors
+     *
+     * @param colors     starting color of every node, not modified
+     * @param initColors color every node is considered to be on when counting migrations, not modified
+     * @param listener   notified after every round, may be null
+     * @throws IllegalArgumentException if the arrays do not have a color in [0, numPartitions) for every node
+     */
+    public PartitionResult partition(CsrGraph graph, int[] colors, int[] initColors, Config config,
+                                     ProgressListener listener) {
+        return run(graph, colors.clone(), initColors.clone(), config, new Random(config.getSeed()), listener);
+    }
+
+    /**
+     * Turns an existing partition into a balanced one with {@link Config#getNumPartitions()} colors,
+     * moving as few nodes as possible, and refines it. Migrations are counted against the existing partition.
+     *
+     * @param oldColors existing partition, not modified
+     * @param listener  notified after every round, may be null
+     * @throws IllegalArgumentException if the partition does not have a non-negative color for every node
+     */
+    public PartitionResult reshard(CsrGraph graph, int[] oldColors, Config config, ProgressListener listener) {
+        Resharder resharder = new Resharder(graph, config.getNumPartitions());
+        resharder.reshard(oldColors);
+        return run(graph, resharder.getColors(), resharder.getInitColors(), config, new Random(config.getSeed()),
+                listener);
+    }
+
+    private PartitionResult run(CsrGraph graph, int[] colors, int[] initColors, Config config, Random random,
+                                ProgressListener listener) {
+        logColorDistribution(colors, config.getNumPartitions());
+        Jabeja host = new Jabeja(graph, colors, initColors, config, random, listener);
+        host.setSwapListener(swapListener);
+        host.startJabeja();
+        return new PartitionResult(host.getColors(), host.getBestEdgeCut(), host.getBestTopologyCost(),
+                host.getBestRound(), host.getRound(), host.getNumberOfSwaps(), host.getMigrations());
+    }
+
+    /**
+     * Generate the colors according to the policy.
+     * The range of colors are [0, numPartitions)
+     *
+     * @param numNodes
+     * @param numPartitions
+     * @param colorPolicy
+     * @param random
+     * @return color of every node
+     */
+    public static int[] getInitialColors(int numNodes, int numPartitions, GraphInitColorPolicy colorPolicy,
+                                         Random random) {
+        int[] colors = new int[numNodes];
+        for (int node = 0; node < numNodes; node++) {
+            // the policies are defined on the 1-based ids of the graph files
+            int id = node + 1;
+            if (colorPolicy == GraphInitColorPolicy.BATCH) {
+                colors[node] = getBatchColor(numNodes, numPartitions, id);
+            } else if (colorPolicy == GraphInitColorPolicy.RANDOM) {
+                colors[node] = random.nextInt(numPartitions);
+            } else if (colorPolicy == GraphInitColorPolicy.ROUND_ROBIN) {
+                colors[node] = id % numPartitions;
+            } else {
+                throw new UnsupportedOperationException(colorPolicy + " for color inital color selection is not not implemented");
+            }
+        }
+        return colors;
+    }
+
+    private static int getBatchColor(int numNodes, int numPartitions, int id) {
+        double partitionSize = (double) numNodes / (double) numPartitions;
+        for (int i = 0; i < numPartitions; i++) {
+            double upperLimit = (i + 1) * partitionSize;
+            if (id <= upperLimit) {
+                return i;
+            }
+        }
+        throw new IllegalStateException(GraphInitColorPolicy.BATCH + " Unable to determine color for id: " + id);
+    }
+
+    /**
+     * Logs the distribution of the colors of the graph
+     */
+    private void logColorDistribution(int[] colors, int numPartitions) {
+        int[] distribution = new int[numPartitions];
+        for (int color : colors) {
+            if (color >= 0 && color < numPartitions) {
+                distribution[color]++;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder("Color Distribution : ");
+        for (int i = 0; i < numPartitions; i++) {
+            sb.append("[ Color: ").append(i).append(",").append(" Count: ").append(distribution[i]).append(" ] ");
+        }
+
+        logger.info(sb);
+    }
+}
@@ -0,0 +1,10 @@
+package se.kth.jabeja.api;
+
+/**
+ * Receives the state of a JaBeJa run after every round. It is called from the thread running
+ * the partitioning, so implementations should return quickly.
+ */
+public interface ProgressListener {
+
+    void onRound(RoundReport report);
+}
@@ -0,0 +1,88 @@
+package se.kth.jabeja.api;
+
+/**
+ * State of a JaBeJa run at the end of a round
+ */
+public class RoundReport {
+    private final int round;
+    private final long edgeCut;
+    private final long topologyCost;
+    private final int swaps;
+    private final int migrations;
+    private final int moves;
+    private final double imbalance;
+    private final double temperature;
+
+    /**
+     * @param topologyCost cost of the cut on the topology, -1 without a topology
+     */
+    public RoundReport(int round, long edgeCut, long topologyCost, int swaps, int migrations, int moves, double imbalance,
+                       double temperature) {
+        this.round = round;
+        this.edgeCut = edgeCut;
+        this.topologyCost = topologyCost;
+        this.swaps = swaps;
+        this.migrations = migrations;
+        this.moves = moves;
+        this.imbalance = imbalance;
+        this.temperature = temperature;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * @return edge cut, weighted if the graph has edge weights
+     */
+    public long getEdgeCut() {
+        return edgeCut;
+    }
+
+    /**
+     * @return cut of the topology run, every cut edge counting for the cost of the level it
+     * crosses, -1 without a topology
+     */
+    public long getTopologyCost() {
+        return topologyCost;
+    }
+
+    /**
+     * @return what the run minimizes: the topology cost with a topology, the edge cut otherwise
+     */
+    public long getObjective() {
+        return topologyCost >= 0 ? topologyCost : edgeCut;
+    }
+
+    /**
+     * @return number of swaps since the beginning of the run
+     */
+    public int getSwaps() {
+        return swaps;
+    }
+
+    /**
+     * @return number of nodes whose color differs from the initial one
+     */
+    public int getMigrations() {
+        return migrations;
+    }
+
+    /**
+     * @return number of one-way moves of single nodes since the beginning of the run
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return vertex weight of the heaviest partition divided by the average (1 is perfectly balanced)
+     */
+    public double getImbalance() {
+        return imbalance;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+}
@@ -0,0 +1,37 @@
+package se.kth.jabeja.api;
+
+/**
+ * Receives every color change applied by a JaBeJa run. The calls are serialized, also when the
+ * rounds run on several threads, and are made while the engine holds its commit lock, so
+ * implementations must return quickly.
+ */
+public interface SwapListener {
+
+    /**
+     * Called once before the first round
+     *
+     * @param colors        colors the run starts from, must not be modified
+     * @param numPartitions number of partitions
+     */
+    void onStart(int[] colors, int numPartitions);
+
+    /**
+     * The two nodes exchanged their colors
+     *
+     * @param color1 color of node1 before the swap
+     * @param color2 color of node2 before the swap
+     */
+    void onSwap(int round, int node1, int color1, int node2, int color2);
+
+    /**
+     * The node moved alone to another color
+     */
+    void onMove(int round, int node, int fromColor, int toColor);
+
+    /**
+     * Called once after the last round, when the colors hold the coloring the run returns
+     *
+     * @param bestRound round at the end of which the colors were those returned, -1 if no round was run
+     */
+    void onFinish(int bestRound);
+}
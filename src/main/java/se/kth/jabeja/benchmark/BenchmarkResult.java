@@ -0,0 +1,111 @@
+package se.kth.jabeja.benchmark;
+
+/**
+ * Measurements of one configuration on one graph, aggregated over the seeds as medians
+ */
+public class BenchmarkResult {
+    /**
+     * Time to a threshold the runs did not reach
+     */
+    public static final long NOT_REACHED = -1;
+    static final String SEPARATOR = "\t";
+
+    private final String graph;
+    private final String config;
+    private final long objective;
+    private final double swapsPerSecond;
+    private final long[] thresholdMillis;
+    private final long peakRssKb;
+
+    /**
+     * @param thresholdMillis time to reach each of {@link BenchmarkRunner#THRESHOLDS}, or {@link #NOT_REACHED}
+     * @param peakRssKb       peak resident set size of the process, or -1 if unknown
+     */
+    public BenchmarkResult(String graph, String config, long objective, double swapsPerSecond, long[] thresholdMillis,
+                           long peakRssKb) {
+        this.graph = graph;
+        this.config = config;
+        this.objective = objective;
+        this.swapsPerSecond = swapsPerSecond;
+        this.thresholdMillis = thresholdMillis;
+        this.peakRssKb = peakRssKb;
+    }
+
+    public String getGraph() {
+        return graph;
+    }
+
+    public String getConfig() {
+        return config;
+    }
+
+    /**
+     * @return key identifying the graph and configuration
+     */
+    public String getKey() {
+        return graph + SEPARATOR + config;
+    }
+
+    /**
+     * @return median over the seeds of the best edge cut, or of the best topology cost for a
+     * configuration with a topology
+     */
+    public long getObjective() {
+        return objective;
+    }
+
+    public double getSwapsPerSecond() {
+        return swapsPerSecond;
+    }
+
+    public long[] getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public long getPeakRssKb() {
+        return peakRssKb;
+    }
+
+    static String getHeader() {
+        StringBuilder sb = new StringBuilder("# Graph").append(SEPARATOR).append("Config").append(SEPARATOR)
+                .append("Objective").append(SEPARATOR).append("Swaps/s");
+        for (double threshold : BenchmarkRunner.THRESHOLDS) {
+            sb.append(SEPARATOR).append("ms-to-").append(Math.round(threshold * 100)).append("%");
+        }
+        return sb.append(SEPARATOR).append("Peak-RSS-KB").toString();
+    }
+
+    /**
+     * @return the result as one tab separated line, in the order of {@link #getHeader()}
+     */
+    String toLine() {
+        StringBuilder sb = new StringBuilder(getKey()).append(SEPARATOR).append(objective).append(SEPARATOR)
+                .append(Math.round(swapsPerSecond));
+        for (long millis : thresholdMillis) {
+            sb.append(SEPARATOR).append(millis);
+        }
+        return sb.append(SEPARATOR).append(peakRssKb).toString();
+    }
+
+    /**
+     * @param line a line written by {@link #toLine()}
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    static BenchmarkResult parse(String line) {
+        String[] parts = line.split(SEPARATOR);
+        int thresholds = BenchmarkRunner.THRESHOLDS.length;
+        if (parts.length != 5 + thresholds) {
+            throw new IllegalArgumentException("Malformed benchmark result: " + line);
+        }
+        try {
+            long[] thresholdMillis = new long[thresholds];
+            for (int i = 0; i < thresholds; i++) {
+                thresholdMillis[i] = Long.parseLong(parts[4 + i]);
+            }
+            return new BenchmarkResult(parts[0], parts[1], Long.parseLong(parts[2]), Double.parseDouble(parts[3]),
+                    thresholdMillis, Long.parseLong(parts[4 + thresholds]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed benchmark result: " + line);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package se.kth.jabeja.benchmark;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.kohsuke.args4j.CmdLineException;
+import se.kth.jabeja.Jabeja;
+import se.kth.jabeja.api.PartitionResult;
+import se.kth.jabeja.api.Partitioner;
+import se.kth.jabeja.api.ProgressListener;
+import se.kth.jabeja.api.RoundReport;
+import se.kth.jabeja.config.Config;
+import se.kth.jabeja.graph.CsrGraph;
+import se.kth.jabeja.io.CLI;
+import se.kth.jabeja.io.FileIO;
+import se.kth.jabeja.io.GraphReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs every configuration of a suite on every graph of a directory with several seeds and
+ * measures the quality reached against the time spent: the best objective (the edge cut, or the
+ * topology cost with -topology), the wall-clock time to get within {@link #THRESHOLDS} of a
+ * reference objective, the swaps per second and the peak
+ * resident memory. The reference is the objective of the baseline when there is one, so the times
+ * of two runs are measured against the same target.
+ * <p>
+ * The suite file has one configuration per line: a name followed by the command line options it
+ * adds to the ones of the benchmark run. Empty lines and lines starting with '#' are skipped.
+ * Without a suite a single configuration named "default" runs with the benchmark options.
+ */
+public class BenchmarkRunner {
+    final static Logger logger = Logger.getLogger(BenchmarkRunner.class);
+
+    /**
+     * Distances to the reference objective whose time to reach is measured
+     */
+    public static final double[] THRESHOLDS = {0.10, 0.05, 0.01};
+    /**
+     * Slower times to a threshold within this many ms of the baseline are scheduling noise, not regressions
+     */
+    static final long TIME_SLACK_MILLIS = 100;
+    static final String RESULTS_FILE = "benchmark.tsv";
+    static final String DEFAULT_CONFIG = "default";
+    private static final String GRAPH_EXTENSION = ".graph";
+
+    private final Config config;
+    private final String[] args;
+    private boolean warmedUp;
+
+    /**
+     * @param config configuration of the benchmark run
+     * @param args   command line of the benchmark run, the base of the options of every configuration
+     */
+    public BenchmarkRunner(Config config, String[] args) {
+        this.config = config;
+        this.args = args;
+    }
+
+    /**
+     * Runs the benchmark, writes the results to the output dir and compares them with the baseline
+     * or saves them as the new baseline
+     *
+     * @return false if a result regressed beyond the tolerance of the baseline
+     * @throws IOException if a graph, the suite or the baseline can not be read, or the results can not be written
+     */
+    public boolean run() throws IOException {
+        if (config.getSaveBaseline() && !config.hasBaselineFile()) {
+            throw new IOException("-saveBaseline needs the -baseline file to write");
+        }
+        Map<String, String[]> suite = readSuite();
+        Map<String, BenchmarkResult> baseline = config.hasBaselineFile() && !config.getSaveBaseline()
+                ? readResults(config.getBaselineFilePath()) : null;
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (File graphFile : listGraphs()) {
+            CsrGraph graph = new GraphReader().readGraph(graphFile.getPath());
+            for (Map.Entry<String, String[]> entry : suite.entrySet()) {
+                String key = graphFile.getName() + BenchmarkResult.SEPARATOR + entry.getKey();
+                BenchmarkResult reference = baseline != null ? baseline.get(key) : null;
+                BenchmarkResult result = measure(graph, graphFile, entry.getKey(), entry.getValue(), reference);
+                logger.info(result.toLine());
+                results.add(result);
+            }
+        }
+
+        File outputDir = new File(config.getOutputDir());
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IOException("Unable to create the output directory");
+        }
+        writeResults(results, new File(outputDir, RESULTS_FILE).getPath());
+        if (config.getSaveBaseline()) {
+            writeResults(results, config.getBaselineFilePath());
+            logger.info("Baseline saved to " + config.getBaselineFilePath());
+            return true;
+        }
+        return baseline == null || compare(results, baseline);
+    }
+
+    /**
+     * Runs one configuration on one graph with all the seeds
+     *
+     * @param reference baseline result of the configuration, null if there is none
+     */
+    private BenchmarkResult measure(CsrGraph graph, File graphFile, String name, String[] options,
+                                    BenchmarkResult reference) throws IOException {
+        Config runConfig = parseConfig(graphFile, options);
+        int seeds = config.getBenchmarkSeeds();
+        long[] objectives = new long[seeds];
+        double[] swapsPerSecond = new double[seeds];
+        List<TimeToCut> progress = new ArrayList<>();
+
+        // the per-round output of the runs would dominate the time of the small graphs
+        Logger engineLogger = Logger.getLogger(Jabeja.class);
+        Logger partitionerLogger = Logger.getLogger(Partitioner.class);
+        Level engineLevel = engineLogger.getLevel();
+        Level partitionerLevel = partitionerLogger.getLevel();
+        engineLogger.setLevel(Level.WARN);
+        partitionerLogger.setLevel(Level.WARN);
+        try {
+            if (!warmedUp) {
+                // the first configuration would otherwise pay for the compilation of the engine
+                new Partitioner().partition(graph, runConfig, null);
+                warmedUp = true;
+            }
+            PeakMemory.reset();
+            for (int i = 0; i < seeds; i++) {
+                runConfig.setSeed(config.getSeed() + i);
+                TimeToCut listener = new TimeToCut(System.nanoTime());
+                PartitionResult result = new Partitioner().partition(graph, runConfig, listener);
+                double seconds = (System.nanoTime() - listener.start) / 1e9;
+                objectives[i] = result.getObjective();
+                swapsPerSecond[i] = seconds > 0 ? result.getSwaps() / seconds : 0;
+                progress.add(listener);
+            }
+        } finally {
+            engineLogger.setLevel(engineLevel);
+            partitionerLogger.setLevel(partitionerLevel);
+        }
+        long peakRssKb = PeakMemory.getPeakRssKb();
+
+        long objective = (long) median(toDoubles(objectives));
+        long referenceObjective = reference != null ? reference.getObjective() : objective;
+        long[] thresholdMillis = new long[THRESHOLDS.length];
+        for (int t = 0; t < THRESHOLDS.length; t++) {
+            double[] millis = new double[seeds];
+            for (int i = 0; i < seeds; i++) {
+                long time = progress.get(i).getMillisTo(referenceObjective * (1 + THRESHOLDS[t]));
+                millis[i] = time == BenchmarkResult.NOT_REACHED ? Double.POSITIVE_INFINITY : time;
+            }
+            double median = median(millis);
+            thresholdMillis[t] = Double.isInfinite(median) ? BenchmarkResult.NOT_REACHED : Math.round(median);
+        }
+        return new BenchmarkResult(graphFile.getName(), name, objective, median(swapsPerSecond), thresholdMillis,
+                peakRssKb);
+    }
+
+    /**
+     * @return config of a run: the benchmark command line, then the options of the configuration, then the graph
+     */
+    private Config parseConfig(File graphFile, String[] options) throws IOException {
+        List<String> runArgs = new ArrayList<>(Arrays.asList(args));
+        runArgs.addAll(Arrays.asList(options));
+        runArgs.add("-graph");
+        runArgs.add(graphFile.getPath());
+        try {
+            return new CLI().parseRunArgs(runArgs.toArray(new String[runArgs.size()]));
+        } catch (CmdLineException e) {
+            throw new IOException("Invalid options " + Arrays.toString(options) + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid options " + Arrays.toString(options) + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks every result against its baseline and logs the regressions
+     *
+     * @return false if a result regressed beyond the tolerance
+     */
+    private boolean compare(List<BenchmarkResult> results, Map<String, BenchmarkResult> baseline) {
+        double tolerance = config.getRegressionTolerance();
+        int regressions = 0;
+        for (BenchmarkResult result : results) {
+            BenchmarkResult base = baseline.get(result.getKey());
+            if (base == null) {
+                logger.info(result.getKey() + " is not in the baseline");
+                continue;
+            }
+            List<String> problems = new ArrayList<>();
+            if (result.getObjective() > base.getObjective() * (1 + tolerance)) {
+                problems.add("objective " + result.getObjective() + " (baseline " + base.getObjective() + ")");
+            }
+            if (result.getSwapsPerSecond() < base.getSwapsPerSecond() * (1 - tolerance)) {
+                problems.add("swaps/s " + Math.round(result.getSwapsPerSecond()) + " (baseline "
+                        + Math.round(base.getSwapsPerSecond()) + ")");
+            }
+            for (int t = 0; t < THRESHOLDS.length; t++) {
+                long baseMillis = base.getThresholdMillis()[t];
+                long millis = result.getThresholdMillis()[t];
+                if (baseMillis != BenchmarkResult.NOT_REACHED && (millis == BenchmarkResult.NOT_REACHED
+                        || millis > baseMillis * (1 + tolerance) + TIME_SLACK_MILLIS)) {
+                    problems.add("time to " + Math.round(THRESHOLDS[t] * 100) + "% "
+                            + (millis == BenchmarkResult.NOT_REACHED ? "not reached" : millis + "ms")
+                            + " (baseline " + baseMillis + "ms)");
+                }
+            }
+            if (!problems.isEmpty()) {
+                regressions++;
+                logger.error("Regression on " + result.getGraph() + " with " + result.getConfig() + ": " + problems);
+            }
+        }
+        for (String key : baseline.keySet()) {
+            boolean found = false;
+            for (BenchmarkResult result : results) {
+                found |= result.getKey().equals(key);
+            }
+            if (!found) {
+                logger.info(key + " of the baseline was not run");
+            }
+        }
+        logger.info(regressions == 0 ? "No regression against the baseline"
+                : regressions + " of " + results.size() + " results regressed against the baseline");
+        return regressions == 0;
+    }
+
+    /**
+     * @return the .graph files of the benchmark directory, sorted by name
+     */
+    private File[] listGraphs() throws IOException {
+        File[] graphs = new File(config.getBenchmarkDir()).listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(GRAPH_EXTENSION);
+            }
+        });
+        if (graphs == null || graphs.length == 0) {
+            throw new IOException("No " + GRAPH_EXTENSION + " file in " + config.getBenchmarkDir());
+        }
+        Arrays.sort(graphs);
+        return graphs;
+    }
+
+    /**
+     * @return options of every configuration of the suite, by name, in the order of the file
+     */
+    private Map<String, String[]> readSuite() throws IOException {
+        Map<String, String[]> suite = new LinkedHashMap<>();
+        if (!config.hasBenchmarkSuite()) {
+            suite.put(DEFAULT_CONFIG, new String[0]);
+            return suite;
+        }
+        BufferedReader reader = new BufferedReader(new FileReader(config.getBenchmarkSuitePath()));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (suite.put(parts[0], Arrays.copyOfRange(parts, 1, parts.length)) != null) {
+                    throw new IOException("Configuration " + parts[0] + " is defined twice in "
+                            + config.getBenchmarkSuitePath());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (suite.isEmpty()) {
+            throw new IOException("No configuration in " + config.getBenchmarkSuitePath());
+        }
+        return suite;
+    }
+
+    private Map<String, BenchmarkResult> readResults(String path) throws IOException {
+        Map<String, BenchmarkResult> results = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new FileReader(path));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    BenchmarkResult result = BenchmarkResult.parse(line);
+                    results.put(result.getKey(), result);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(path + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return results;
+    }
+
+    private void writeResults(List<BenchmarkResult> results, String path) throws IOException {
+        StringBuilder sb = new StringBuilder("# Median over ").append(config.getBenchmarkSeeds())
+                .append(" seeds. The objective is the edge cut, or the topology cost with -topology. Times in ms")
+                .append(" to reach the objective within the given distance of the reference, ")
+                .append(BenchmarkResult.NOT_REACHED).append(" if not reached.\n")
+                .append(BenchmarkResult.getHeader()).append("\n");
+        for (BenchmarkResult result : results) {
+            sb.append(result.toLine()).append("\n");
+        }
+        File file = new File(path);
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Unable to replace " + path);
+        }
+        FileIO.write(sb.toString(), path);
+    }
+
+    private static double[] toDoubles(long[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+
+    /**
+     * @return the median, the lower one of the two middle values for an even count
+     */
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(sorted.length - 1) / 2];
+    }
+
+    /**
+     * Records the objective of every round with the time it was reached
+     */
+    private static class TimeToCut implements ProgressListener {
+        private final long start;
+        private final List<long[]> rounds = new ArrayList<>();
+
+        TimeToCut(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onRound(RoundReport report) {
+            rounds.add(new long[]{System.nanoTime() - start, report.getObjective()});
+        }
+
+        /**
+         * @return milliseconds from the start of the run to the first round with an objective of at most the given one
+         */
+        long getMillisTo(double objective) {
+            for (long[] round : rounds) {
+                if (round[1] <= objective) {
+                    return round[0] / 1000000;
+                }
+            }
+            return BenchmarkResult.NOT_REACHED;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package se.kth.jabeja.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Peak resident set size of this process, from /proc on Linux. Elsewhere it is unknown.
+ */
+class PeakMemory {
+    private static final File STATUS = new File("/proc/self/status");
+    private static final File CLEAR_REFS = new File("/proc/self/clear_refs");
+
+    private PeakMemory() {
+    }
+
+    /**
+     * Resets the peak to the current resident set size, if the kernel allows it
+     */
+    static void reset() {
+        if (!CLEAR_REFS.canWrite()) {
+            return;
+        }
+        try {
+            Writer writer = new FileWriter(CLEAR_REFS);
+            try {
+                writer.write("5");
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            // the peak keeps counting from the start of the process
+        }
+    }
+
+    /**
+     * @return peak resident set size in KB since the start or the last reset, -1 if unknown
+     */
+    static long getPeakRssKb() {
+        if (!STATUS.canRead()) {
+            return -1;
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(STATUS));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("VmHWM:")) {
+                        return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            return -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,31 @@
+package se.kth.jabeja.config;
+
+/**
+ * Which nodes the uniform random sample of the graph is drawn from
+ */
+public enum BoundarySamplingPolicy {
+    /**
+     * All the nodes of the graph
+     */
+    NONE("NONE"),
+    /**
+     * The nodes with at least one neighbor of another color
+     */
+    ALL("ALL"),
+    /**
+     * The nodes with at least one neighbor of another color, among the colors other than the one
+     * of the node looking for a partner
+     */
+    BY_COLOR("BY_COLOR");
+
+    String name;
+
+    BoundarySamplingPolicy(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -14,13 +14,261 @@ public class Config {
   private String outputDir;
   private GraphInitColorPolicy initColorPolicy;
   private NodeSelectionPolicy nodeSelectionPolicy;
+  private BoundarySamplingPolicy boundarySamplingPolicy;
   private Float alpha;
+  private Integer timeBudget;
+  private Long targetEdgeCut;
+  private Integer plateauWindow;
+  private CoolingPolicy coolingPolicy;
+  private Float minSwapRate;
+  private Integer stallRounds;
+  private Float migrationPenalty;
+  private Integer migrationBudget;
+  private Float balanceTolerance;
+  private Integer threads;
+  private Integer hubSplitDegree;
+  private Topology topology;
+  private String initPartitionFile;
+  private String journalFile;
+  private String replayJournalFile;
+  private Integer replayRound;
+  private Integer traceNode;
+  private String benchmarkDir;
+  private String benchmarkSuite;
+  private Integer benchmarkSeeds;
+  private String baselineFile;
+  private Boolean saveBaseline;
+  private Float regressionTolerance;
+  private String generateGraphFile;
+  private GraphModel graphModel;
+  private Integer generatedNodes;
+  private Integer averageDegree;
+  private Float rewiringProbability;
+  private Integer clusters;
+  private Float intraClusterProbability;
+  private float[] rmatProbabilities;
+  private Boolean binaryGraph;
+  private Integer generatorMemory;
+  private String analyzePartitionFile;
+  private Boolean daemon;
+  private Integer port;
+  private Integer workers;
+  private Integer queueSize;
+  private Integer graphCacheSize;
+  private Integer resultCacheSize;
 
   public Config setAlpha(Float alpha) {
     this.alpha = alpha;
     return this;
   }
 
+  public Config setTimeBudget(Integer timeBudget) {
+    this.timeBudget = timeBudget;
+    return this;
+  }
+
+  public Config setTargetEdgeCut(Long targetEdgeCut) {
+    this.targetEdgeCut = targetEdgeCut;
+    return this;
+  }
+
+  public Config setPlateauWindow(Integer plateauWindow) {
+    this.plateauWindow = plateauWindow;
+    return this;
+  }
+
+  public Config setCoolingPolicy(CoolingPolicy coolingPolicy) {
+    this.coolingPolicy = coolingPolicy;
+    return this;
+  }
+
+  public Config setMinSwapRate(Float minSwapRate) {
+    this.minSwapRate = minSwapRate;
+    return this;
+  }
+
+  public Config setStallRounds(Integer stallRounds) {
+    this.stallRounds = stallRounds;
+    return this;
+  }
+
+  public Config setMigrationPenalty(Float migrationPenalty) {
+    this.migrationPenalty = migrationPenalty;
+    return this;
+  }
+
+  public Config setMigrationBudget(Integer migrationBudget) {
+    this.migrationBudget = migrationBudget;
+    return this;
+  }
+
+  public Config setBalanceTolerance(Float balanceTolerance) {
+    this.balanceTolerance = balanceTolerance;
+    return this;
+  }
+
+  public Config setThreads(Integer threads) {
+    this.threads = threads;
+    return this;
+  }
+
+  public Config setHubSplitDegree(Integer hubSplitDegree) {
+    this.hubSplitDegree = hubSplitDegree;
+    return this;
+  }
+
+  /**
+   * @param topology hierarchy the partitions are placed on, or null for equally distant partitions.
+   *                 Its number of leaves has to match the number of partitions.
+   */
+  public Config setTopology(Topology topology) {
+    this.topology = topology;
+    return this;
+  }
+
+  public Config setInitPartitionFilePath(String initPartitionFile) {
+    this.initPartitionFile = initPartitionFile;
+    return this;
+  }
+
+  public Config setJournalFilePath(String journalFile) {
+    this.journalFile = journalFile;
+    return this;
+  }
+
+  public Config setReplayJournalFilePath(String replayJournalFile) {
+    this.replayJournalFile = replayJournalFile;
+    return this;
+  }
+
+  public Config setReplayRound(Integer replayRound) {
+    this.replayRound = replayRound;
+    return this;
+  }
+
+  public Config setTraceNode(Integer traceNode) {
+    this.traceNode = traceNode;
+    return this;
+  }
+
+  public Config setBenchmarkDir(String benchmarkDir) {
+    this.benchmarkDir = benchmarkDir;
+    return this;
+  }
+
+  public Config setBenchmarkSuitePath(String benchmarkSuite) {
+    this.benchmarkSuite = benchmarkSuite;
+    return this;
+  }
+
+  public Config setBenchmarkSeeds(Integer benchmarkSeeds) {
+    this.benchmarkSeeds = benchmarkSeeds;
+    return this;
+  }
+
+  public Config setBaselineFilePath(String baselineFile) {
+    this.baselineFile = baselineFile;
+    return this;
+  }
+
+  public Config setSaveBaseline(Boolean saveBaseline) {
+    this.saveBaseline = saveBaseline;
+    return this;
+  }
+
+  public Config setRegressionTolerance(Float regressionTolerance) {
+    this.regressionTolerance = regressionTolerance;
+    return this;
+  }
+
+  public Config setGenerateGraphFilePath(String generateGraphFile) {
+    this.generateGraphFile = generateGraphFile;
+    return this;
+  }
+
+  public Config setGraphModel(GraphModel graphModel) {
+    this.graphModel = graphModel;
+    return this;
+  }
+
+  public Config setGeneratedNodes(Integer generatedNodes) {
+    this.generatedNodes = generatedNodes;
+    return this;
+  }
+
+  public Config setAverageDegree(Integer averageDegree) {
+    this.averageDegree = averageDegree;
+    return this;
+  }
+
+  public Config setRewiringProbability(Float rewiringProbability) {
+    this.rewiringProbability = rewiringProbability;
+    return this;
+  }
+
+  public Config setClusters(Integer clusters) {
+    this.clusters = clusters;
+    return this;
+  }
+
+  public Config setIntraClusterProbability(Float intraClusterProbability) {
+    this.intraClusterProbability = intraClusterProbability;
+    return this;
+  }
+
+  /**
+   * @param rmatProbabilities probabilities of the top left, top right and bottom left quadrants
+   */
+  public Config setRmatProbabilities(float[] rmatProbabilities) {
+    this.rmatProbabilities = rmatProbabilities;
+    return this;
+  }
+
+  public Config setBinaryGraph(Boolean binaryGraph) {
+    this.binaryGraph = binaryGraph;
+    return this;
+  }
+
+  public Config setGeneratorMemory(Integer generatorMemory) {
+    this.generatorMemory = generatorMemory;
+    return this;
+  }
+
+  public Config setAnalyzePartitionFilePath(String analyzePartitionFile) {
+    this.analyzePartitionFile = analyzePartitionFile;
+    return this;
+  }
+
+  public Config setDaemon(Boolean daemon) {
+    this.daemon = daemon;
+    return this;
+  }
+
+  public Config setPort(Integer port) {
+    this.port = port;
+    return this;
+  }
+
+  public Config setWorkers(Integer workers) {
+    this.workers = workers;
+    return this;
+  }
+
+  public Config setQueueSize(Integer queueSize) {
+    this.queueSize = queueSize;
+    return this;
+  }
+
+  public Config setGraphCacheSize(Integer graphCacheSize) {
+    this.graphCacheSize = graphCacheSize;
+    return this;
+  }
+
+  public Config setResultCacheSize(Integer resultCacheSize) {
+    this.resultCacheSize = resultCacheSize;
+    return this;
+  }
+
   public Config setGraphInitialColorPolicy(GraphInitColorPolicy policy) {
     this.initColorPolicy = policy;
     return this;
@@ -36,6 +284,11 @@ public class Config {
     return this;
   }
 
+  public Config setBoundarySamplingPolicy(BoundarySamplingPolicy boundarySamplingPolicy) {
+    this.boundarySamplingPolicy = boundarySamplingPolicy;
+    return this;
+  }
+
   public Config setGraphFilePath(String graphFilePath) {
     this.graphFile = graphFilePath;
     return this;
@@ -128,6 +381,14 @@ public class Config {
     return temperature;
   }
 
+  /**
+   * @return true if delta is set, otherwise the cooling schedule uses its own default,
+   * see {@link se.kth.jabeja.annealing.CoolingSchedules#getDelta(Config)}
+   */
+  public boolean hasDelta() {
+    return delta != null;
+  }
+
   public Float getDelta() {
     if (delta == null) {
       throw new NullPointerException("Delta is not set");
@@ -170,6 +431,16 @@ public class Config {
     return nodeSelectionPolicy;
   }
 
+  /**
+   * @return which nodes the uniform random sample of the RANDOM and HYBRID node selection is drawn from
+   */
+  public BoundarySamplingPolicy getBoundarySamplingPolicy() {
+    if (boundarySamplingPolicy == null) {
+      throw new NullPointerException("Boundary sampling policy is not defined.");
+    }
+    return boundarySamplingPolicy;
+  }
+
   public String getOutputDir() {
     if (outputDir == null) {
       throw new NullPointerException("Output dir is not set");
@@ -184,8 +455,470 @@ public class Config {
     return alpha;
   }
 
+  /**
+   * @return wall-clock budget of a run in seconds (no budget: 0)
+   */
+  public Integer getTimeBudget() {
+    if (timeBudget == null || timeBudget < 0) {
+      throw new NullPointerException("Time budget is not set");
+    }
+    return timeBudget;
+  }
+
+  /**
+   * @return edge cut at which a run stops early (disabled: negative)
+   */
+  public Long getTargetEdgeCut() {
+    if (targetEdgeCut == null) {
+      throw new NullPointerException("Target edge cut is not set");
+    }
+    return targetEdgeCut;
+  }
+
+  /**
+   * @return number of rounds without improvement of the best edge cut
+   * after which a run stops early (disabled: 0)
+   */
+  public Integer getPlateauWindow() {
+    if (plateauWindow == null || plateauWindow < 0) {
+      throw new NullPointerException("Plateau window is not set");
+    }
+    return plateauWindow;
+  }
+
+  public CoolingPolicy getCoolingPolicy() {
+    if (coolingPolicy == null) {
+      throw new NullPointerException("Cooling policy is not defined.");
+    }
+    return coolingPolicy;
+  }
+
+  /**
+   * @return fraction of swapping nodes per round under which the adaptive
+   * acceptance cooling considers the search stalled
+   */
+  public Float getMinSwapRate() {
+    if (minSwapRate == null) {
+      throw new NullPointerException("Min swap rate is not set");
+    }
+    return minSwapRate;
+  }
+
+  /**
+   * @return number of stalled rounds after which the adaptive cooling reheats
+   */
+  public Integer getStallRounds() {
+    if (stallRounds == null || stallRounds <= 0) {
+      throw new NullPointerException("Stall rounds is not set");
+    }
+    return stallRounds;
+  }
+
+  /**
+   * @return utility subtracted from a swap for each node it moves away from its initial color
+   */
+  public Float getMigrationPenalty() {
+    if (migrationPenalty == null || migrationPenalty < 0) {
+      throw new NullPointerException("Migration penalty is not set");
+    }
+    return migrationPenalty;
+  }
+
+  /**
+   * @return maximum number of nodes allowed away from their initial color (unlimited: negative)
+   */
+  public Integer getMigrationBudget() {
+    if (migrationBudget == null) {
+      throw new NullPointerException("Migration budget is not set");
+    }
+    return migrationBudget;
+  }
+
+  /**
+   * @return how far (as a fraction of the average) the total vertex weight of a partition may
+   * deviate from the average. A positive tolerance also enables one-way moves of single nodes.
+   */
+  public Float getBalanceTolerance() {
+    if (balanceTolerance == null || balanceTolerance < 0) {
+      throw new NullPointerException("Balance tolerance is not set");
+    }
+    return balanceTolerance;
+  }
+
+  /**
+   * @return number of threads processing the nodes of a round, 1 to process them in order in the calling thread
+   */
+  public Integer getThreads() {
+    if (threads == null || threads < 1) {
+      throw new NullPointerException("Threads is not set");
+    }
+    return threads;
+  }
+
+  /**
+   * @return degree from which the neighbors of a hub are counted by several threads (disabled: 0)
+   */
+  public Integer getHubSplitDegree() {
+    if (hubSplitDegree == null || hubSplitDegree < 0) {
+      throw new NullPointerException("Hub split degree is not set");
+    }
+    return hubSplitDegree;
+  }
+
+  /**
+   * @return true if an edge cut costs according to the levels of a topology it crosses
+   */
+  public boolean hasTopology() {
+    return topology != null;
+  }
+
+  public Topology getTopology() {
+    if (topology == null) {
+      throw new NullPointerException("Topology is not set");
+    }
+    return topology;
+  }
+
+  /**
+   * @return true if the run reshards an existing partition instead of using the initial color policy
+   */
+  public boolean hasInitPartitionFile() {
+    return initPartitionFile != null;
+  }
+
+  public String getInitPartitionFilePath() {
+    if (initPartitionFile == null) {
+      throw new NullPointerException("Initial partition file path is not set");
+    }
+    return initPartitionFile;
+  }
+
+  /**
+   * @return true if the color changes of the run are written to a swap journal
+   */
+  public boolean hasJournalFile() {
+    return journalFile != null;
+  }
+
+  public String getJournalFilePath() {
+    if (journalFile == null) {
+      throw new NullPointerException("Journal file path is not set");
+    }
+    return journalFile;
+  }
+
+  /**
+   * @return true if the run only rebuilds a coloring from a swap journal
+   */
+  public boolean hasReplayJournalFile() {
+    return replayJournalFile != null;
+  }
+
+  public String getReplayJournalFilePath() {
+    if (replayJournalFile == null) {
+      throw new NullPointerException("Journal file to replay is not set");
+    }
+    return replayJournalFile;
+  }
+
+  /**
+   * @return last round applied when replaying a journal, -1 for the partition the run returned
+   */
+  public Integer getReplayRound() {
+    if (replayRound == null) {
+      throw new NullPointerException("Replay round is not set");
+    }
+    return replayRound;
+  }
+
+  /**
+   * @return id (as in the graph file) of the node whose color changes are listed when replaying, 0 for none
+   */
+  public Integer getTraceNode() {
+    if (traceNode == null || traceNode < 0) {
+      throw new NullPointerException("Trace node is not set");
+    }
+    return traceNode;
+  }
+
+  /**
+   * @return true if the run only benchmarks the partitioner on the graphs of a directory
+   */
+  public boolean hasBenchmarkDir() {
+    return benchmarkDir != null;
+  }
+
+  public String getBenchmarkDir() {
+    if (benchmarkDir == null) {
+      throw new NullPointerException("Benchmark graph directory is not set");
+    }
+    return benchmarkDir;
+  }
+
+  /**
+   * @return true if the benchmark runs the named configurations of a suite file instead of a single one
+   */
+  public boolean hasBenchmarkSuite() {
+    return benchmarkSuite != null;
+  }
+
+  public String getBenchmarkSuitePath() {
+    if (benchmarkSuite == null) {
+      throw new NullPointerException("Benchmark suite file is not set");
+    }
+    return benchmarkSuite;
+  }
+
+  /**
+   * @return number of seeds every configuration of the benchmark is run with
+   */
+  public Integer getBenchmarkSeeds() {
+    if (benchmarkSeeds == null || benchmarkSeeds < 1) {
+      throw new NullPointerException("Number of benchmark seeds is not set");
+    }
+    return benchmarkSeeds;
+  }
+
+  /**
+   * @return true if the benchmark results are compared with, or saved as, a baseline
+   */
+  public boolean hasBaselineFile() {
+    return baselineFile != null;
+  }
+
+  public String getBaselineFilePath() {
+    if (baselineFile == null) {
+      throw new NullPointerException("Baseline file is not set");
+    }
+    return baselineFile;
+  }
+
+  /**
+   * @return true if the benchmark results replace the baseline instead of being compared with it
+   */
+  public Boolean getSaveBaseline() {
+    if (saveBaseline == null) {
+      throw new NullPointerException("Save baseline is not set");
+    }
+    return saveBaseline;
+  }
+
+  /**
+   * @return relative loss of quality or throughput against the baseline reported as a regression
+   */
+  public Float getRegressionTolerance() {
+    if (regressionTolerance == null || regressionTolerance < 0) {
+      throw new NullPointerException("Regression tolerance is not set");
+    }
+    return regressionTolerance;
+  }
+
+  /**
+   * @return true if the run only generates a synthetic graph
+   */
+  public boolean hasGenerateGraphFile() {
+    return generateGraphFile != null;
+  }
+
+  public String getGenerateGraphFilePath() {
+    if (generateGraphFile == null) {
+      throw new NullPointerException("Graph file to generate is not set");
+    }
+    return generateGraphFile;
+  }
+
+  public GraphModel getGraphModel() {
+    if (graphModel == null) {
+      throw new NullPointerException("Graph model is not defined.");
+    }
+    return graphModel;
+  }
+
+  /**
+   * @return number of nodes of the generated graph
+   */
+  public Integer getGeneratedNodes() {
+    if (generatedNodes == null) {
+      throw new NullPointerException("Number of nodes to generate is not set");
+    }
+    return generatedNodes;
+  }
+
+  /**
+   * @return average degree of the generated graph before duplicate edges are removed
+   */
+  public Integer getAverageDegree() {
+    if (averageDegree == null) {
+      throw new NullPointerException("Average degree is not set");
+    }
+    return averageDegree;
+  }
+
+  /**
+   * @return probability of rewiring an edge of the Watts-Strogatz lattice
+   */
+  public Float getRewiringProbability() {
+    if (rewiringProbability == null) {
+      throw new NullPointerException("Rewiring probability is not set");
+    }
+    return rewiringProbability;
+  }
+
+  /**
+   * @return number of clusters of the clustered model
+   */
+  public Integer getClusters() {
+    if (clusters == null) {
+      throw new NullPointerException("Number of clusters is not set");
+    }
+    return clusters;
+  }
+
+  /**
+   * @return probability that an edge of the clustered model stays inside its cluster
+   */
+  public Float getIntraClusterProbability() {
+    if (intraClusterProbability == null) {
+      throw new NullPointerException("Intra cluster probability is not set");
+    }
+    return intraClusterProbability;
+  }
+
+  /**
+   * @return probabilities of the top left, top right and bottom left quadrants of the R-MAT model
+   */
+  public float[] getRmatProbabilities() {
+    if (rmatProbabilities == null) {
+      throw new NullPointerException("R-MAT probabilities are not set");
+    }
+    return rmatProbabilities;
+  }
+
+  /**
+   * @return true if the generated graph is written in the binary graph format instead of the Jostle format
+   */
+  public Boolean getBinaryGraph() {
+    if (binaryGraph == null) {
+      throw new NullPointerException("Binary graph is not set");
+    }
+    return binaryGraph;
+  }
+
+  /**
+   * @return memory in MB the generator uses to sort the edges of a range of nodes
+   */
+  public Integer getGeneratorMemory() {
+    if (generatorMemory == null || generatorMemory < 1) {
+      throw new NullPointerException("Generator memory is not set");
+    }
+    return generatorMemory;
+  }
+
+  /**
+   * @return true if the run only scores an existing partition of the graph
+   */
+  public boolean hasAnalyzePartitionFile() {
+    return analyzePartitionFile != null;
+  }
+
+  public String getAnalyzePartitionFilePath() {
+    if (analyzePartitionFile == null) {
+      throw new NullPointerException("Partition file to analyze is not set");
+    }
+    return analyzePartitionFile;
+  }
+
+  /**
+   * @return true if the application runs as a partitioning service
+   */
+  public Boolean getDaemon() {
+    if (daemon == null) {
+      throw new NullPointerException("Daemon is not set");
+    }
+    return daemon;
+  }
+
+  public Integer getPort() {
+    if (port == null) {
+      throw new NullPointerException("Port is not set");
+    }
+    return port;
+  }
+
+  /**
+   * @return number of jobs the partitioning service runs at the same time
+   */
+  public Integer getWorkers() {
+    if (workers == null || workers <= 0) {
+      throw new NullPointerException("Workers is not set");
+    }
+    return workers;
+  }
+
+  /**
+   * @return number of jobs the partitioning service queues before rejecting new ones
+   */
+  public Integer getQueueSize() {
+    if (queueSize == null || queueSize <= 0) {
+      throw new NullPointerException("Queue size is not set");
+    }
+    return queueSize;
+  }
+
+  /**
+   * @return memory in MB the partitioning service uses to keep parsed graphs
+   */
+  public Integer getGraphCacheSize() {
+    if (graphCacheSize == null || graphCacheSize < 0) {
+      throw new NullPointerException("Graph cache size is not set");
+    }
+    return graphCacheSize;
+  }
+
+  /**
+   * @return memory in MB the partitioning service uses to keep the partitions of finished jobs
+   */
+  public Integer getResultCacheSize() {
+    if (resultCacheSize == null || resultCacheSize < 0) {
+      throw new NullPointerException("Result cache size is not set");
+    }
+    return resultCacheSize;
+  }
+
   public Config createJabejaConfig() {
     return new Config();
   }
 
+  /**
+   * @return a config with the defaults of the partitioner options, for embedding JaBeJa.
+   * The command line options start from these values too.
+   * The graph file path and output dir are left unset, and so is delta, so the cooling
+   * schedule uses its own default.
+   */
+  public static Config withDefaults() {
+    return new Config().setRandNeighborsSampleSize(3)
+            .setNumPartitions(4)
+            .setUniformRandSampleSize(6)
+            .setRounds(1000)
+            .setSeed(0)
+            .setResetEachNIteration(0)
+            .setUseAcceptanceProbability(false)
+            .setTemperature((float) 2)
+            .setNodeSelectionPolicy(NodeSelectionPolicy.HYBRID)
+            .setBoundarySamplingPolicy(BoundarySamplingPolicy.NONE)
+            .setGraphInitialColorPolicy(GraphInitColorPolicy.ROUND_ROBIN)
+            .setAlpha((float) 2)
+            .setTimeBudget(0)
+            .setTargetEdgeCut(-1L)
+            .setPlateauWindow(0)
+            .setCoolingPolicy(CoolingPolicy.LINEAR)
+            .setMinSwapRate((float) 0.001)
+            .setStallRounds(50)
+            .setMigrationPenalty((float) 0)
+            .setMigrationBudget(-1)
+            .setBalanceTolerance((float) 0)
+            .setThreads(1)
+            .setHubSplitDegree(0);
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package se.kth.jabeja.config;
+
+/**
+ * How the simulated annealing temperature evolves between rounds
+ */
+public enum CoolingPolicy {
+    /**
+     * Subtract delta from the temperature each round
+     */
+    LINEAR("LINEAR"),
+    /**
+     * Multiply the temperature by delta each round, down to the minimum temperature.
+     * Delta is a factor here, 0.97 by default. Reaches the cut of LINEAR in fewer rounds on
+     * clustered graphs such as synth-*, but ends higher on small-world graphs such as ws-*,
+     * which need the longer linear anneal
+     */
+    EXPONENTIAL("EXPONENTIAL"),
+    /**
+     * T(r) = T0 / (1 + delta * ln(1 + r)), with delta 0.5 by default. Like EXPONENTIAL it
+     * trades the quality on small-world graphs for speed on clustered ones
+     */
+    LOGARITHMIC("LOGARITHMIC"),
+    /**
+     * Base decay, reheating when the fraction of swapping nodes in a round
+     * stays below the minimum acceptance rate
+     */
+    ADAPTIVE_ACCEPTANCE("ADAPTIVE_ACCEPTANCE"),
+    /**
+     * Base decay, reheating when the edge cut has not improved for a number of rounds
+     */
+    ADAPTIVE_EDGE_CUT("ADAPTIVE_EDGE_CUT");
+
+    String name;
+
+    CoolingPolicy(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
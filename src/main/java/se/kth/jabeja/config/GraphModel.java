@@ -0,0 +1,35 @@
+package se.kth.jabeja.config;
+
+/**
+ * Random graph models of the graph generator
+ */
+public enum GraphModel {
+    /**
+     * Ring lattice whose edges are rewired to a random node with the rewiring probability
+     */
+    WATTS_STROGATZ("WATTS_STROGATZ"),
+    /**
+     * Nodes in equal clusters, every edge staying inside the cluster with the intra cluster probability,
+     * like the synth graphs
+     */
+    CLUSTERED("CLUSTERED"),
+    /**
+     * Recursive matrix (Kronecker) model with a skewed degree distribution
+     */
+    RMAT("RMAT"),
+    /**
+     * Preferential attachment, giving a power law degree distribution
+     */
+    BARABASI_ALBERT("BARABASI_ALBERT");
+
+    String name;
+
+    GraphModel(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
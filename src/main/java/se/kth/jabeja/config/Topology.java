@@ -0,0 +1,147 @@
+package se.kth.jabeja.config;
+
+/**
+ * Hierarchy the partitions are placed on, e.g. 4 racks of 8 hosts of 2 sockets. Every partition
+ * is one leaf; partition c has the mixed radix digits of c as its coordinates, the outermost
+ * level first. An edge between two partitions crosses the outermost level at which their
+ * coordinates differ and costs the cost of that level.
+ */
+public class Topology {
+    /**
+     * Largest number of partitions: the levels of all the pairs of partitions are kept in a
+     * k x k matrix, as are the affinities of the engine, 64 MB each at this size
+     */
+    public static final int MAX_PARTITIONS = 4096;
+
+    private final int[] levelSizes;
+    private final int[] levelCosts;
+    private final int numPartitions;
+    private final int[] levels;
+    private final int maxCost;
+
+    /**
+     * @param levelSizes number of groups per parent group of every level, the outermost first
+     * @param levelCosts cost of an edge crossing every level, the outermost first
+     */
+    public Topology(int[] levelSizes, int[] levelCosts) {
+        if (levelSizes.length == 0 || levelSizes.length != levelCosts.length) {
+            throw new IllegalArgumentException("A topology needs one cost per level");
+        }
+        long partitions = 1;
+        int max = 0;
+        for (int i = 0; i < levelSizes.length; i++) {
+            if (levelSizes[i] < 1 || levelCosts[i] < 1) {
+                throw new IllegalArgumentException("Topology level sizes and costs must be positive");
+            }
+            partitions *= levelSizes[i];
+            if (partitions > MAX_PARTITIONS) {
+                throw new IllegalArgumentException("The topology has more than " + MAX_PARTITIONS + " partitions");
+            }
+            max = Math.max(max, levelCosts[i]);
+        }
+        this.levelSizes = levelSizes.clone();
+        this.levelCosts = levelCosts.clone();
+        this.numPartitions = (int) partitions;
+        this.maxCost = max;
+        this.levels = new int[numPartitions * numPartitions];
+        for (int color1 = 0; color1 < numPartitions; color1++) {
+            for (int color2 = 0; color2 < numPartitions; color2++) {
+                levels[color1 * numPartitions + color2] = computeLevel(color1, color2);
+            }
+        }
+    }
+
+    /**
+     * @param levelSizes sizes of the levels separated by 'x', the outermost first, e.g. "4x8x2"
+     * @param levelCosts costs of the levels separated by ',', or null for the number of levels
+     *                   from the crossed one down, e.g. 3,2,1
+     * @throws IllegalArgumentException if the description is malformed
+     */
+    public static Topology parse(String levelSizes, String levelCosts) {
+        int[] sizes = parseInts(levelSizes, "x");
+        int[] costs = new int[sizes.length];
+        if (levelCosts == null) {
+            for (int i = 0; i < sizes.length; i++) {
+                costs[i] = sizes.length - i;
+            }
+        } else {
+            costs = parseInts(levelCosts, ",");
+        }
+        return new Topology(sizes, costs);
+    }
+
+    private static int[] parseInts(String value, String separator) {
+        String[] parts = value.trim().split(separator);
+        int[] ints = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                ints[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed topology: " + value);
+        }
+        return ints;
+    }
+
+    private int computeLevel(int color1, int color2) {
+        // the divisor of the outermost level is the number of leaves below one of its groups
+        int divisor = numPartitions;
+        for (int level = 0; level < levelSizes.length; level++) {
+            divisor /= levelSizes[level];
+            if (color1 / divisor != color2 / divisor) {
+                return level;
+            }
+        }
+        return -1;
+    }
+
+    public int getNumLevels() {
+        return levelSizes.length;
+    }
+
+    /**
+     * @return number of leaves, the partitions of the graph
+     */
+    public int getNumPartitions() {
+        return numPartitions;
+    }
+
+    public int getLevelCost(int level) {
+        return levelCosts[level];
+    }
+
+    /**
+     * @return the largest cost of a level
+     */
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    /**
+     * @return outermost level at which the two partitions are in different groups, -1 for the same partition
+     */
+    public int getLevel(int color1, int color2) {
+        return levels[color1 * numPartitions + color2];
+    }
+
+    /**
+     * @return cost of an edge between the two partitions, 0 within a partition
+     */
+    public int getDistance(int color1, int color2) {
+        int level = getLevel(color1, color2);
+        return level < 0 ? 0 : levelCosts[level];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < levelSizes.length; i++) {
+            sb.append(i == 0 ? "" : "x").append(levelSizes[i]);
+        }
+        sb.append(" (costs");
+        for (int i = 0; i < levelCosts.length; i++) {
+            sb.append(i == 0 ? " " : ",").append(levelCosts[i]);
+        }
+        return sb.append(")").toString();
+    }
+}
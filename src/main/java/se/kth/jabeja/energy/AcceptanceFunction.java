@@ -0,0 +1,19 @@
+package se.kth.jabeja.energy;
+
+import java.util.Random;
+
+/**
+ * The simulated annealing test of a recoloring: whether a node accepts a new utility
+ * in place of its old one at the current temperature.
+ */
+public interface AcceptanceFunction {
+
+    /**
+     * @param oldEnergy   utility before the recoloring
+     * @param newEnergy   utility after the recoloring
+     * @param temperature current temperature
+     * @param random      source of randomness of the calling thread
+     * @return true if the recoloring is accepted
+     */
+    boolean accept(double oldEnergy, double newEnergy, double temperature, Random random);
+}
@@ -0,0 +1,21 @@
+package se.kth.jabeja.energy;
+
+/**
+ * Picks the acceptance test of a run
+ */
+public class AcceptanceFunctions {
+
+    private AcceptanceFunctions() {
+    }
+
+    /**
+     * @param useAcceptanceProbability true for the acceptance probability, false to scale by the temperature
+     * @return the acceptance test
+     */
+    public static AcceptanceFunction create(boolean useAcceptanceProbability) {
+        if (useAcceptanceProbability) {
+            return new ProbabilityAcceptance();
+        }
+        return new TemperatureAcceptance();
+    }
+}
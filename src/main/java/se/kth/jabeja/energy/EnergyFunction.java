@@ -0,0 +1,14 @@
+package se.kth.jabeja.energy;
+
+/**
+ * The JaBeJa utility of a node: how much a node gains from having
+ * a given number of neighbors with its own color.
+ */
+public interface EnergyFunction {
+
+    /**
+     * @param degree number of neighbors with the same color
+     * @return utility of the node
+     */
+    double energy(int degree);
+}
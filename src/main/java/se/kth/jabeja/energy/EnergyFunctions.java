@@ -0,0 +1,31 @@
+package se.kth.jabeja.energy;
+
+/**
+ * Picks the cheapest energy kernel for a given alpha
+ */
+public class EnergyFunctions {
+    /**
+     * Largest degree for which a lookup table is built (8MB of doubles)
+     */
+    public static final int MAX_TABLE_DEGREE = 1 << 20;
+
+    private EnergyFunctions() {
+    }
+
+    /**
+     * @param alpha     exponent of the degree
+     * @param maxDegree the largest degree the function will be evaluated for
+     * @return the energy function degree^alpha
+     */
+    public static EnergyFunction create(double alpha, int maxDegree) {
+        if (alpha == 1) {
+            return new LinearEnergy();
+        } else if (alpha == 2) {
+            return new SquareEnergy();
+        } else if (maxDegree <= MAX_TABLE_DEGREE) {
+            return new PowerTableEnergy(alpha, maxDegree);
+        } else {
+            return new PowerEnergy(alpha);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package se.kth.jabeja.energy;
+
+/**
+ * Fast path for alpha = 1
+ */
+public class LinearEnergy implements EnergyFunction {
+
+    @Override
+    public double energy(int degree) {
+        return degree;
+    }
+}
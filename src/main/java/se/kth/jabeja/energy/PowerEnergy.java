@@ -0,0 +1,17 @@
+package se.kth.jabeja.energy;
+
+/**
+ * degree^alpha computed on every call, for degrees too large to be tabulated
+ */
+public class PowerEnergy implements EnergyFunction {
+    private final double alpha;
+
+    public PowerEnergy(double alpha) {
+        this.alpha = alpha;
+    }
+
+    @Override
+    public double energy(int degree) {
+        return Math.pow(degree, alpha);
+    }
+}
@@ -0,0 +1,20 @@
+package se.kth.jabeja.energy;
+
+/**
+ * degree^alpha for any alpha, precomputed for every degree up to the maximum degree of the graph
+ */
+public class PowerTableEnergy implements EnergyFunction {
+    private final double[] table;
+
+    public PowerTableEnergy(double alpha, int maxDegree) {
+        table = new double[maxDegree + 1];
+        for (int degree = 0; degree <= maxDegree; degree++) {
+            table[degree] = Math.pow(degree, alpha);
+        }
+    }
+
+    @Override
+    public double energy(int degree) {
+        return table[degree];
+    }
+}
@@ -0,0 +1,14 @@
+package se.kth.jabeja.energy;
+
+import java.util.Random;
+
+/**
+ * Accepts a new utility with probability exp((new - old) / temperature), drawing a random number per test
+ */
+public class ProbabilityAcceptance implements AcceptanceFunction {
+
+    @Override
+    public boolean accept(double oldEnergy, double newEnergy, double temperature, Random random) {
+        return Math.exp((newEnergy - oldEnergy) / temperature) > random.nextDouble();
+    }
+}
@@ -0,0 +1,12 @@
+package se.kth.jabeja.energy;
+
+/**
+ * Fast path for alpha = 2, the default of the JaBeJa paper
+ */
+public class SquareEnergy implements EnergyFunction {
+
+    @Override
+    public double energy(int degree) {
+        return (double) degree * degree;
+    }
+}
@@ -0,0 +1,14 @@
+package se.kth.jabeja.energy;
+
+import java.util.Random;
+
+/**
+ * Accepts a new utility that beats the old one once scaled by the temperature. Draws no random number.
+ */
+public class TemperatureAcceptance implements AcceptanceFunction {
+
+    @Override
+    public boolean accept(double oldEnergy, double newEnergy, double temperature, Random random) {
+        return newEnergy * temperature > oldEnergy;
+    }
+}
@@ -0,0 +1,60 @@
+package se.kth.jabeja.generator;
+
+import java.util.Random;
+
+/**
+ * Barabasi-Albert preferential attachment as in the linear time algorithm of Batagelj and
+ * Brandes: node v adds averageDegree / 2 edges, and edge e goes to the node found at a uniformly
+ * random position of the list of the endpoints of the edges before it, which picks nodes in
+ * proportion to their degree.
+ * <p>
+ * The random position of an edge is a hash of the seed and the edge, so the target of any edge is
+ * found by following positions back until one holds the source of its edge, without keeping the
+ * list. Every edge can then be generated on its own, on any thread. One unit per edge.
+ */
+public class BarabasiAlbertModel implements EdgeModel {
+    private final int numNodes;
+    private final int edgesPerNode;
+    private final long seed;
+
+    public BarabasiAlbertModel(int numNodes, int averageDegree, long seed) {
+        this.numNodes = numNodes;
+        this.edgesPerNode = Math.max(1, averageDegree / 2);
+        this.seed = seed;
+    }
+
+    @Override
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public long getNumUnits() {
+        return getNumEdges();
+    }
+
+    @Override
+    public long getNumEdges() {
+        return (long) numNodes * edgesPerNode;
+    }
+
+    @Override
+    public void generate(long from, long to, Random random, EdgeSink sink) {
+        for (long edge = from; edge < to; edge++) {
+            sink.addEdge((int) (edge / edgesPerNode), getTarget(edge));
+        }
+    }
+
+    /**
+     * Position 2e of the endpoint list holds the source of edge e, position 2e + 1 its target,
+     * which is the value at a random position in [0, 2e].
+     */
+    private int getTarget(long edge) {
+        long position = 2 * edge + 1;
+        while ((position & 1) == 1) {
+            long e = position >>> 1;
+            position = (Seeds.hash(seed, e) >>> 1) % (2 * e + 1);
+        }
+        return (int) ((position >>> 1) / edgesPerNode);
+    }
+}
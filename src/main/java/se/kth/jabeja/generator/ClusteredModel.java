@@ -0,0 +1,66 @@
+package se.kth.jabeja.generator;
+
+import java.util.Random;
+
+/**
+ * Nodes split in equal clusters of consecutive ids, like the synth graphs: every node links to
+ * averageDegree / 2 nodes drawn from its own cluster with the intra cluster probability and from
+ * the whole graph otherwise. One unit per node.
+ */
+public class ClusteredModel implements EdgeModel {
+    private final int numNodes;
+    private final int halfDegree;
+    private final int clusters;
+    private final double intraClusterProbability;
+
+    public ClusteredModel(int numNodes, int averageDegree, int clusters, double intraClusterProbability) {
+        if (clusters < 1 || clusters > numNodes) {
+            throw new IllegalArgumentException("The number of clusters must be in [1, number of nodes]");
+        }
+        if (intraClusterProbability < 0 || intraClusterProbability > 1) {
+            throw new IllegalArgumentException("The intra cluster probability must be in [0, 1]");
+        }
+        this.numNodes = numNodes;
+        this.halfDegree = Math.max(1, averageDegree / 2);
+        this.clusters = clusters;
+        this.intraClusterProbability = intraClusterProbability;
+    }
+
+    @Override
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public long getNumUnits() {
+        return numNodes;
+    }
+
+    @Override
+    public long getNumEdges() {
+        return (long) numNodes * halfDegree;
+    }
+
+    @Override
+    public void generate(long from, long to, Random random, EdgeSink sink) {
+        for (int node = (int) from; node < to; node++) {
+            int cluster = (int) ((long) node * clusters / numNodes);
+            int start = getClusterStart(cluster);
+            int size = getClusterStart(cluster + 1) - start;
+            for (int j = 0; j < halfDegree; j++) {
+                int target = random.nextDouble() < intraClusterProbability
+                        ? start + random.nextInt(size)
+                        : random.nextInt(numNodes);
+                sink.addEdge(node, target);
+            }
+        }
+    }
+
+    /**
+     * @return first node of the cluster, the first node past the last cluster for clusters
+     */
+    private int getClusterStart(int cluster) {
+        // the smallest node whose cluster, node * clusters / numNodes, is the given one
+        return (int) (((long) cluster * numNodes + clusters - 1) / clusters);
+    }
+}
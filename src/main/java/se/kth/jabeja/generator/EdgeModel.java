@@ -0,0 +1,37 @@
+package se.kth.jabeja.generator;
+
+import java.util.Random;
+
+/**
+ * A random graph model that generates its edges in independent units (nodes or edges), so any
+ * range of units can be generated on any thread without knowing the others.
+ */
+public interface EdgeModel {
+
+    /**
+     * @return number of nodes of the graph
+     */
+    int getNumNodes();
+
+    /**
+     * @return number of units the edges are generated in
+     */
+    long getNumUnits();
+
+    /**
+     * @return number of edges generated, before self loops and duplicates are removed
+     */
+    long getNumEdges();
+
+    /**
+     * Generates the edges of the units [from, to)
+     *
+     * @param random source of randomness of this range only
+     * @param sink   receives the edges, in either direction
+     */
+    void generate(long from, long to, Random random, EdgeSink sink);
+
+    interface EdgeSink {
+        void addEdge(int node1, int node2);
+    }
+}
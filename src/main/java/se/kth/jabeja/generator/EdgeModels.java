@@ -0,0 +1,41 @@
+package se.kth.jabeja.generator;
+
+import se.kth.jabeja.config.Config;
+import se.kth.jabeja.config.GraphModel;
+
+/**
+ * Creates the edge model selected in the config
+ */
+public class EdgeModels {
+
+    private EdgeModels() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the parameters do not fit the model
+     */
+    public static EdgeModel create(Config config) {
+        int numNodes = config.getGeneratedNodes();
+        int averageDegree = config.getAverageDegree();
+        if (numNodes < 2) {
+            throw new IllegalArgumentException("A generated graph needs at least 2 nodes");
+        }
+        if (averageDegree < 1) {
+            throw new IllegalArgumentException("The average degree must be positive");
+        }
+        GraphModel model = config.getGraphModel();
+        switch (model) {
+            case WATTS_STROGATZ:
+                return new WattsStrogatzModel(numNodes, averageDegree, config.getRewiringProbability());
+            case CLUSTERED:
+                return new ClusteredModel(numNodes, averageDegree, config.getClusters(),
+                        config.getIntraClusterProbability());
+            case RMAT:
+                return new RmatModel(numNodes, averageDegree, config.getRmatProbabilities());
+            case BARABASI_ALBERT:
+                return new BarabasiAlbertModel(numNodes, averageDegree, config.getSeed());
+            default:
+                throw new UnsupportedOperationException(model + " graph model is not implemented");
+        }
+    }
+}
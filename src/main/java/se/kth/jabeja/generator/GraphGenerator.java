@@ -0,0 +1,414 @@
+package se.kth.jabeja.generator;
+
+import org.apache.log4j.Logger;
+import se.kth.jabeja.config.Config;
+import se.kth.jabeja.io.GraphWriter;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a synthetic graph and streams it to a graph file with a bounded amount of memory.
+ * <p>
+ * The edges are generated in fixed chunks of units, every chunk with its own random seed derived
+ * from the seed and the chunk index, so the graph only depends on the seed and not on the number
+ * of threads. Both directions of every edge are spilled to bucket files, each holding the edges
+ * of a range of source nodes. The buckets are then read back in order, one at a time, sorted and
+ * deduplicated, and their nodes written out.
+ * <p>
+ * Half of the memory given to the generator holds the entries being sorted, the other half the
+ * number of entries of every node of a bucket. The nodes of a bucket are counted first, and the
+ * bucket is read in as many passes as needed for the entries of a pass to fit in their half, so
+ * models that put most edges on a few nodes, like R-MAT and Barabasi-Albert, stay within the
+ * memory too. While the edges are generated, the spill buffers of the running tasks share the
+ * whole memory.
+ */
+public class GraphGenerator {
+    final static Logger logger = Logger.getLogger(GraphGenerator.class);
+
+    /**
+     * Units generated by one task. Fixed, so the chunks and their seeds do not depend on the threads
+     */
+    private static final int CHUNK_UNITS = 1 << 16;
+    /**
+     * Largest number of entries buffered per bucket by a task before they are appended to the
+     * bucket file; fewer when the memory is short
+     */
+    private static final int MAX_BUFFER_ENTRIES = 1 << 12;
+    private static final int MIN_BUFFER_ENTRIES = 64;
+    /**
+     * Bucket files open at the same time
+     */
+    private static final int MAX_BUCKETS = 256;
+    /**
+     * Bytes of memory per adjacency entry of a pass: the entry itself, and as much again for the
+     * counts of the nodes of the bucket
+     */
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final Config config;
+
+    public GraphGenerator(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Generates the graph to the file of the config
+     *
+     * @throws IllegalArgumentException if the parameters do not fit the graph model
+     */
+    public void generate() throws IOException {
+        EdgeModel model = EdgeModels.create(config);
+        String graphFilePath = config.getGenerateGraphFilePath();
+        int numNodes = model.getNumNodes();
+        long memory = (long) config.getGeneratorMemory() * 1024 * 1024;
+        long maxEntries = Math.max(1, memory / BYTES_PER_ENTRY);
+        int numBuckets = getNumBuckets(model, memory, maxEntries);
+        int bufferEntries = getBufferEntries(memory, numBuckets);
+        logger.info("Generating a " + config.getGraphModel() + " graph of " + numNodes + " nodes and "
+                + model.getNumEdges() + " edges in " + numBuckets + " buckets");
+
+        long start = System.currentTimeMillis();
+        File tempDir = createTempDir(graphFilePath);
+        Bucket[] buckets = new Bucket[numBuckets];
+        try {
+            for (int i = 0; i < numBuckets; i++) {
+                buckets[i] = new Bucket(new File(tempDir, "bucket-" + i),
+                        (int) ((long) numNodes * i / numBuckets),
+                        (int) ((long) numNodes * (i + 1) / numBuckets));
+            }
+            spillEdges(model, buckets, bufferEntries);
+            logger.info("Edges generated in " + (System.currentTimeMillis() - start) + " ms");
+
+            GraphWriter writer = new GraphWriter(graphFilePath, numNodes, config.getBinaryGraph());
+            try {
+                for (Bucket bucket : buckets) {
+                    writeBucket(bucket, maxEntries, writer);
+                    bucket.file.delete();
+                }
+            } finally {
+                writer.close();
+            }
+            logger.info("Graph generated in " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            for (Bucket bucket : buckets) {
+                if (bucket != null) {
+                    bucket.close();
+                    bucket.file.delete();
+                }
+            }
+            tempDir.delete();
+        }
+    }
+
+    /**
+     * @return enough buckets for the expected entries of a bucket to fit in one pass and for the
+     * counts of its nodes to fit in their half of the memory, at most {@link #MAX_BUCKETS}
+     * @throws IllegalArgumentException if the counts do not fit even with the most buckets
+     */
+    private int getNumBuckets(EdgeModel model, long memory, long maxEntries) {
+        int numNodes = model.getNumNodes();
+        long forEntries = (2 * model.getNumEdges() + maxEntries - 1) / maxEntries;
+        long countsMemory = Math.max(1, memory / 2);
+        long forCounts = (4L * numNodes + countsMemory - 1) / countsMemory;
+        if (forCounts > MAX_BUCKETS) {
+            throw new IllegalArgumentException(config.getGeneratorMemory() + " MB of generator memory are too few to count "
+                    + "the entries of " + numNodes + " nodes in " + MAX_BUCKETS + " buckets");
+        }
+        // past MAX_BUCKETS the buckets are read in more passes
+        return (int) Math.max(1, Math.min(numNodes, Math.min(MAX_BUCKETS, Math.max(forEntries, forCounts))));
+    }
+
+    /**
+     * @return entries per bucket buffered by a task, such that the buffers of all the running
+     * tasks fit in the memory
+     */
+    private int getBufferEntries(long memory, int numBuckets) {
+        // every task has a buffer of longs per bucket and one of bytes to write them out
+        long perEntry = 8L * config.getThreads() * (numBuckets + 1);
+        return (int) Math.max(MIN_BUFFER_ENTRIES, Math.min(MAX_BUFFER_ENTRIES, memory / perEntry));
+    }
+
+    /**
+     * The temporary files go next to the output, where there is room for the graph anyway
+     */
+    private File createTempDir(String graphFilePath) throws IOException {
+        File parent = new File(graphFilePath).getAbsoluteFile().getParentFile();
+        File tempDir = File.createTempFile("generator", ".tmp", parent);
+        if (!tempDir.delete() || !tempDir.mkdir()) {
+            throw new IOException("Unable to create a temporary directory in " + parent);
+        }
+        return tempDir;
+    }
+
+    /**
+     * Generates all the units on the threads of the config and spills their edges to the buckets
+     */
+    private void spillEdges(final EdgeModel model, final Bucket[] buckets, final int bufferEntries)
+            throws IOException {
+        final long seed = config.getSeed();
+        long numUnits = model.getNumUnits();
+        ExecutorService executor = Executors.newFixedThreadPool(config.getThreads());
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (long from = 0, chunk = 0; from < numUnits; from += CHUNK_UNITS, chunk++) {
+                final long chunkFrom = from;
+                final long chunkTo = Math.min(numUnits, from + CHUNK_UNITS);
+                final long chunkSeed = Seeds.hash(seed, chunk);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        ChunkSink sink = new ChunkSink(buckets, model.getNumNodes(), bufferEntries);
+                        model.generate(chunkFrom, chunkTo, new Random(chunkSeed), sink);
+                        sink.flush();
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            for (Bucket bucket : buckets) {
+                bucket.close();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Unable to generate the edges", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating the edges");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the nodes of the bucket, in as many passes over its file as needed for the entries
+     * of a pass to stay within maxEntries. The passes are cut on the counted entries of the
+     * nodes; only a node with more entries than that gets a larger pass, of its own.
+     */
+    private void writeBucket(Bucket bucket, long maxEntries, GraphWriter writer) throws IOException {
+        int[] counts = countEntries(bucket);
+        int[] neighbors = new int[16];
+        int passStart = bucket.firstNode;
+        while (passStart < bucket.lastNode) {
+            int passEnd = passStart;
+            long passEntries = 0;
+            while (passEnd < bucket.lastNode && (passEnd == passStart
+                    || passEntries + counts[passEnd - bucket.firstNode] <= maxEntries)) {
+                passEntries += counts[passEnd - bucket.firstNode];
+                passEnd++;
+            }
+            if (passEntries > Integer.MAX_VALUE - 8) {
+                throw new IOException("Node " + passStart + " has too many edges to be sorted in memory");
+            }
+            long[] edges = readEdges(bucket.file, passStart, passEnd, (int) passEntries);
+            Arrays.sort(edges);
+
+            int i = 0;
+            for (int node = passStart; node < passEnd; node++) {
+                int degree = 0;
+                while (i < edges.length && (int) (edges[i] >>> 32) == node) {
+                    int neighbor = (int) edges[i];
+                    // sorted, so a repeated edge follows the first one
+                    if (degree == 0 || neighbors[degree - 1] != neighbor) {
+                        if (degree == neighbors.length) {
+                            neighbors = Arrays.copyOf(neighbors, 2 * degree);
+                        }
+                        neighbors[degree++] = neighbor;
+                    }
+                    i++;
+                }
+                writer.writeNode(neighbors, degree);
+            }
+            passStart = passEnd;
+        }
+    }
+
+    /**
+     * @return number of entries of every node of the bucket, indexed from its first node
+     */
+    private int[] countEntries(Bucket bucket) throws IOException {
+        int[] counts = new int[bucket.lastNode - bucket.firstNode];
+        DataInputStream input = openBucket(bucket.file);
+        try {
+            while (true) {
+                long edge;
+                try {
+                    edge = input.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                counts[(int) (edge >>> 32) - bucket.firstNode]++;
+            }
+        } finally {
+            input.close();
+        }
+        return counts;
+    }
+
+    /**
+     * @param count number of entries whose source is in the range, as counted
+     * @return the entries of the file whose source is in [firstNode, lastNode)
+     */
+    private long[] readEdges(File file, int firstNode, int lastNode, int count) throws IOException {
+        long[] edges = new long[count];
+        int read = 0;
+        DataInputStream input = openBucket(file);
+        try {
+            while (true) {
+                long edge;
+                try {
+                    edge = input.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                int source = (int) (edge >>> 32);
+                if (source >= firstNode && source < lastNode) {
+                    if (read == count) {
+                        throw new IOException(file + " changed while it was read");
+                    }
+                    edges[read++] = edge;
+                }
+            }
+        } finally {
+            input.close();
+        }
+        if (read != count) {
+            throw new IOException(file + " changed while it was read");
+        }
+        return edges;
+    }
+
+    private static DataInputStream openBucket(File file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+    }
+
+    /**
+     * File holding the edges whose source is in [firstNode, lastNode), appended to by all the tasks
+     */
+    private static class Bucket {
+        final File file;
+        final int firstNode;
+        final int lastNode;
+        // unbuffered: the tasks append whole buffers, and a buffer per bucket would be memory
+        // outside the budget
+        private FileOutputStream output;
+
+        Bucket(File file, int firstNode, int lastNode) throws IOException {
+            this.file = file;
+            this.firstNode = firstNode;
+            this.lastNode = lastNode;
+            this.output = new FileOutputStream(file);
+        }
+
+        synchronized void append(byte[] bytes, int length) throws IOException {
+            output.write(bytes, 0, length);
+        }
+
+        synchronized void close() throws IOException {
+            if (output != null) {
+                output.close();
+                output = null;
+            }
+        }
+    }
+
+    /**
+     * Buffers the edges of one task per bucket, both directions of every edge, without self loops
+     */
+    private static class ChunkSink implements EdgeModel.EdgeSink {
+        private final Bucket[] buckets;
+        private final int numNodes;
+        private final long[][] buffers;
+        private final int[] sizes;
+        private final int bufferEntries;
+        private final byte[] bytes;
+        private IOException failure;
+
+        ChunkSink(Bucket[] buckets, int numNodes, int bufferEntries) {
+            this.buckets = buckets;
+            this.numNodes = numNodes;
+            this.buffers = new long[buckets.length][];
+            this.sizes = new int[buckets.length];
+            this.bufferEntries = bufferEntries;
+            this.bytes = new byte[8 * bufferEntries];
+        }
+
+        @Override
+        public void addEdge(int node1, int node2) {
+            if (node1 == node2 || failure != null) {
+                return;
+            }
+            add(node1, node2);
+            add(node2, node1);
+        }
+
+        private void add(int source, int target) {
+            int bucket = (int) ((long) source * buckets.length / numNodes);
+            // the bucket of a node is the last one starting at or before it
+            while (bucket + 1 < buckets.length && buckets[bucket + 1].firstNode <= source) {
+                bucket++;
+            }
+            while (buckets[bucket].firstNode > source) {
+                bucket--;
+            }
+            if (buffers[bucket] == null) {
+                buffers[bucket] = new long[bufferEntries];
+            }
+            buffers[bucket][sizes[bucket]++] = ((long) source << 32) | target;
+            if (sizes[bucket] == bufferEntries) {
+                try {
+                    flush(bucket);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                flush(bucket);
+            }
+        }
+
+        private void flush(int bucket) throws IOException {
+            long[] buffer = buffers[bucket];
+            int size = sizes[bucket];
+            if (size == 0) {
+                return;
+            }
+            // the bytes are laid out before taking the lock of the shared file
+            for (int i = 0, b = 0; i < size; i++) {
+                long value = buffer[i];
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    bytes[b++] = (byte) (value >>> shift);
+                }
+            }
+            buckets[bucket].append(bytes, 8 * size);
+            sizes[bucket] = 0;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package se.kth.jabeja.generator;
+
+import java.util.Random;
+
+/**
+ * R-MAT: every edge picks one quadrant of the adjacency matrix per bit of the node ids, with the
+ * probabilities a, b, c and d = 1 - a - b - c for the top left, top right, bottom left and
+ * bottom right quadrants. The matrix has the next power of two of the number of nodes as its
+ * side; edges falling outside of the nodes are drawn again. One unit per edge.
+ */
+public class RmatModel implements EdgeModel {
+    private final int numNodes;
+    private final long numEdges;
+    private final int scale;
+    private final double a;
+    private final double ab;
+    private final double abc;
+
+    public RmatModel(int numNodes, int averageDegree, float[] probabilities) {
+        double d = 1 - probabilities[0] - probabilities[1] - probabilities[2];
+        if (probabilities[0] < 0 || probabilities[1] < 0 || probabilities[2] < 0 || d < 0) {
+            throw new IllegalArgumentException("The R-MAT probabilities must be positive and sum up to at most 1");
+        }
+        this.numNodes = numNodes;
+        this.numEdges = Math.max(1, (long) numNodes * averageDegree / 2);
+        this.scale = 32 - Integer.numberOfLeadingZeros(numNodes - 1);
+        this.a = probabilities[0];
+        this.ab = a + probabilities[1];
+        this.abc = ab + probabilities[2];
+    }
+
+    @Override
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public long getNumUnits() {
+        return numEdges;
+    }
+
+    @Override
+    public long getNumEdges() {
+        return numEdges;
+    }
+
+    @Override
+    public void generate(long from, long to, Random random, EdgeSink sink) {
+        for (long edge = from; edge < to; edge++) {
+            int source;
+            int target;
+            do {
+                source = 0;
+                target = 0;
+                for (int bit = 0; bit < scale; bit++) {
+                    double r = random.nextDouble();
+                    source <<= 1;
+                    target <<= 1;
+                    if (r >= abc) {
+                        source |= 1;
+                        target |= 1;
+                    } else if (r >= ab) {
+                        source |= 1;
+                    } else if (r >= a) {
+                        target |= 1;
+                    }
+                }
+            } while (source >= numNodes || target >= numNodes);
+            sink.addEdge(source, target);
+        }
+    }
+}
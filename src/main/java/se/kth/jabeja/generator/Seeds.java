@@ -0,0 +1,23 @@
+package se.kth.jabeja.generator;
+
+/**
+ * Derives independent seeds and random values from one seed and a key, so a chunk of work gets
+ * the same randomness whichever thread runs it and in whatever order.
+ */
+final class Seeds {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private Seeds() {
+    }
+
+    /**
+     * @return a well spread 64 bit value for the key, the same for the same seed and key
+     */
+    static long hash(long seed, long key) {
+        // SplitMix64: consecutive keys land far apart in all the bits
+        long z = seed + (key + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,50 @@
+package se.kth.jabeja.generator;
+
+import java.util.Random;
+
+/**
+ * Watts-Strogatz small world: a ring lattice where every node is linked to the next
+ * averageDegree / 2 nodes, and every link goes to a uniformly random node instead with the
+ * rewiring probability. One unit per node.
+ */
+public class WattsStrogatzModel implements EdgeModel {
+    private final int numNodes;
+    private final int halfDegree;
+    private final double rewiringProbability;
+
+    public WattsStrogatzModel(int numNodes, int averageDegree, double rewiringProbability) {
+        if (rewiringProbability < 0 || rewiringProbability > 1) {
+            throw new IllegalArgumentException("The rewiring probability must be in [0, 1]");
+        }
+        this.numNodes = numNodes;
+        this.halfDegree = Math.max(1, averageDegree / 2);
+        this.rewiringProbability = rewiringProbability;
+    }
+
+    @Override
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public long getNumUnits() {
+        return numNodes;
+    }
+
+    @Override
+    public long getNumEdges() {
+        return (long) numNodes * halfDegree;
+    }
+
+    @Override
+    public void generate(long from, long to, Random random, EdgeSink sink) {
+        for (int node = (int) from; node < to; node++) {
+            for (int j = 1; j <= halfDegree; j++) {
+                int target = random.nextDouble() < rewiringProbability
+                        ? random.nextInt(numNodes)
+                        : (int) ((node + (long) j) % numNodes);
+                sink.addEdge(node, target);
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package se.kth.jabeja.graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable undirected graph in compressed sparse row form. Nodes are numbered 0..n-1
+ * (node id - 1 in the Jostle/METIS files) and the neighbors of node v are
+ * adjacency[offsets[v]] .. adjacency[offsets[v + 1] - 1]. Nodes may carry a weight,
+ * e.g. their compute load; without weights every node weighs 1. Edges may carry a weight
+ * too, e.g. the traffic between two nodes, stored in an array parallel to the adjacency
+ * array; both directions of an edge are expected to have the same weight.
+ */
+public class CsrGraph {
+    private final int[] offsets;
+    private final int[] adjacency;
+    private final int[] vertexWeights;
+    private final int[] edgeWeights;
+    private final int maxDegree;
+    private final long maxWeightedDegree;
+    private final long totalVertexWeight;
+
+    /**
+     * @param offsets   n + 1 offsets into the adjacency array, starting at 0
+     * @param adjacency neighbors of all nodes, one after the other
+     */
+    public CsrGraph(int[] offsets, int[] adjacency) {
+        this(offsets, adjacency, null, null);
+    }
+
+    /**
+     * @param offsets       n + 1 offsets into the adjacency array, starting at 0
+     * @param adjacency     neighbors of all nodes, one after the other
+     * @param vertexWeights non negative weight of every node, or null if all nodes weigh 1
+     */
+    public CsrGraph(int[] offsets, int[] adjacency, int[] vertexWeights) {
+        this(offsets, adjacency, vertexWeights, null);
+    }
+
+    /**
+     * @param offsets       n + 1 offsets into the adjacency array, starting at 0
+     * @param adjacency     neighbors of all nodes, one after the other
+     * @param vertexWeights non negative weight of every node, or null if all nodes weigh 1
+     * @param edgeWeights   non negative weight of every entry of the adjacency array, or null if all edges weigh 1
+     */
+    public CsrGraph(int[] offsets, int[] adjacency, int[] vertexWeights, int[] edgeWeights) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != adjacency.length) {
+            throw new IllegalArgumentException("Offsets do not match the adjacency array");
+        }
+        int numNodes = offsets.length - 1;
+        int max = 0;
+        for (int v = 0; v < numNodes; v++) {
+            if (offsets[v + 1] < offsets[v]) {
+                throw new IllegalArgumentException("Offsets are not sorted at node " + v);
+            }
+            max = Math.max(max, offsets[v + 1] - offsets[v]);
+        }
+        for (int u : adjacency) {
+            if (u < 0 || u >= numNodes) {
+                throw new IllegalArgumentException("Neighbor " + u + " is not a node of the graph");
+            }
+        }
+        long maxWeighted = max;
+        if (edgeWeights != null) {
+            if (edgeWeights.length != adjacency.length) {
+                throw new IllegalArgumentException("There are " + edgeWeights.length + " edge weights for "
+                        + adjacency.length + " adjacency entries");
+            }
+            maxWeighted = 0;
+            for (int v = 0; v < numNodes; v++) {
+                long degree = 0;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    if (edgeWeights[i] < 0) {
+                        throw new IllegalArgumentException("An edge of node " + v + " has a negative weight");
+                    }
+                    degree += edgeWeights[i];
+                }
+                maxWeighted = Math.max(maxWeighted, degree);
+            }
+        }
+        long total = numNodes;
+        if (vertexWeights != null) {
+            if (vertexWeights.length != numNodes) {
+                throw new IllegalArgumentException("There are " + vertexWeights.length + " vertex weights for "
+                        + numNodes + " nodes");
+            }
+            total = 0;
+            for (int v = 0; v < numNodes; v++) {
+                if (vertexWeights[v] < 0) {
+                    throw new IllegalArgumentException("Node " + v + " has a negative weight");
+                }
+                total += vertexWeights[v];
+            }
+        }
+        this.offsets = offsets;
+        this.adjacency = adjacency;
+        this.vertexWeights = vertexWeights;
+        this.edgeWeights = edgeWeights;
+        this.maxDegree = max;
+        this.maxWeightedDegree = maxWeighted;
+        this.totalVertexWeight = total;
+    }
+
+    public int getNumNodes() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return number of undirected edges, each stored twice in the adjacency array
+     */
+    public long getNumEdges() {
+        return adjacency.length / 2;
+    }
+
+    public int getDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public boolean hasVertexWeights() {
+        return vertexWeights != null;
+    }
+
+    public int getVertexWeight(int node) {
+        return vertexWeights == null ? 1 : vertexWeights[node];
+    }
+
+    /**
+     * The returned array must not be modified
+     *
+     * @return the weight of every node, or null if all nodes weigh 1
+     */
+    public int[] getVertexWeights() {
+        return vertexWeights;
+    }
+
+    public long getTotalVertexWeight() {
+        return totalVertexWeight;
+    }
+
+    public boolean hasEdgeWeights() {
+        return edgeWeights != null;
+    }
+
+    /**
+     * @param index position of the edge in the adjacency array
+     */
+    public int getEdgeWeight(int index) {
+        return edgeWeights == null ? 1 : edgeWeights[index];
+    }
+
+    /**
+     * The returned array must not be modified
+     *
+     * @return the weight of every entry of the adjacency array, or null if all edges weigh 1
+     */
+    public int[] getEdgeWeights() {
+        return edgeWeights;
+    }
+
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * @return the largest sum of the edge weights of a node, equal to the max degree without edge weights
+     */
+    public long getMaxWeightedDegree() {
+        return maxWeightedDegree;
+    }
+
+    /**
+     * The returned array must not be modified
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * The returned array must not be modified
+     */
+    public int[] getAdjacency() {
+        return adjacency;
+    }
+
+    /**
+     * @return approximate heap footprint of the graph in bytes
+     */
+    public long getMemoryFootprint() {
+        return 4L * (offsets.length + adjacency.length + (vertexWeights == null ? 0 : vertexWeights.length)
+                + (edgeWeights == null ? 0 : edgeWeights.length)) + 64;
+    }
+
+    /**
+     * Builds a graph node by node, in order
+     */
+    public static class Builder {
+        private final int numNodes;
+        private final int[] offsets;
+        private int[] adjacency;
+        private int[] vertexWeights;
+        private int[] edgeWeights;
+        private int node = 0;
+
+        /**
+         * @param numNodes          number of nodes of the graph
+         * @param expectedAdjacency expected number of entries in the adjacency array (2 * edges)
+         */
+        public Builder(int numNodes, long expectedAdjacency) {
+            this.numNodes = numNodes;
+            this.offsets = new int[numNodes + 1];
+            this.adjacency = new int[(int) Math.min(Math.max(expectedAdjacency, 16), Integer.MAX_VALUE - 8)];
+        }
+
+        /**
+         * Adds the next node with its neighbors (0-based)
+         */
+        public Builder addNode(int[] neighbors, int count) {
+            return addNode(neighbors, null, count);
+        }
+
+        /**
+         * Adds the next node with its neighbors (0-based) and the weights of the edges to them
+         */
+        public Builder addNode(int[] neighbors, int[] weights, int count) {
+            checkNotFull();
+            if (vertexWeights != null) {
+                vertexWeights[node] = 1;
+            }
+            return addNeighbors(neighbors, weights, count);
+        }
+
+        /**
+         * Adds the next node with its weight and its neighbors (0-based)
+         */
+        public Builder addNode(int weight, int[] neighbors, int count) {
+            return addNode(weight, neighbors, null, count);
+        }
+
+        /**
+         * Adds the next node with its weight, its neighbors (0-based) and the weights of the edges to them
+         */
+        public Builder addNode(int weight, int[] neighbors, int[] weights, int count) {
+            checkNotFull();
+            if (vertexWeights == null) {
+                vertexWeights = new int[numNodes];
+                Arrays.fill(vertexWeights, 0, node, 1);
+            }
+            vertexWeights[node] = weight;
+            return addNeighbors(neighbors, weights, count);
+        }
+
+        private void checkNotFull() {
+            if (node == numNodes) {
+                throw new IllegalStateException("All " + numNodes + " nodes have been added");
+            }
+        }
+
+        /**
+         * @param weights weights of the edges to the neighbors, or null if they weigh 1
+         */
+        private Builder addNeighbors(int[] neighbors, int[] weights, int count) {
+            int start = offsets[node];
+            ensureCapacity(start + count);
+            System.arraycopy(neighbors, 0, adjacency, start, count);
+            if (weights != null && edgeWeights == null) {
+                edgeWeights = new int[adjacency.length];
+                Arrays.fill(edgeWeights, 0, start, 1);
+            }
+            if (edgeWeights != null) {
+                if (weights != null) {
+                    System.arraycopy(weights, 0, edgeWeights, start, count);
+                } else {
+                    Arrays.fill(edgeWeights, start, start + count, 1);
+                }
+            }
+            offsets[++node] = start + count;
+            return this;
+        }
+
+        public Builder addNode(int... neighbors) {
+            return addNode(neighbors, neighbors.length);
+        }
+
+        public int getAddedNodes() {
+            return node;
+        }
+
+        public CsrGraph build() {
+            if (node != numNodes) {
+                throw new IllegalStateException("Only " + node + " of " + numNodes + " nodes have been added");
+            }
+            int size = offsets[numNodes];
+            return new CsrGraph(offsets, trim(adjacency, size), vertexWeights,
+                    edgeWeights == null ? null : trim(edgeWeights, size));
+        }
+
+        private int[] trim(int[] array, int size) {
+            return size == array.length ? array : Arrays.copyOf(array, size);
+        }
+
+        private void ensureCapacity(long capacity) {
+            if (capacity > adjacency.length) {
+                long newCapacity = Math.max(capacity, adjacency.length + (adjacency.length >> 1));
+                adjacency = Arrays.copyOf(adjacency, (int) Math.min(newCapacity, Integer.MAX_VALUE - 8));
+                if (edgeWeights != null) {
+                    edgeWeights = Arrays.copyOf(edgeWeights, adjacency.length);
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package se.kth.jabeja.io;
 
 import org.apache.log4j.Logger;
+import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
+import se.kth.jabeja.config.BoundarySamplingPolicy;
 import se.kth.jabeja.config.Config;
+import se.kth.jabeja.config.CoolingPolicy;
 import se.kth.jabeja.config.GraphInitColorPolicy;
+import se.kth.jabeja.config.GraphModel;
 import se.kth.jabeja.config.NodeSelectionPolicy;
+import se.kth.jabeja.config.Topology;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Created by salman on 10/25/16.
@@ -16,98 +24,370 @@ import java.io.FileNotFoundException;
 public class CLI {
   final static Logger logger = Logger.getLogger(CLI.class);
 
+  /**
+   * Options a job of the partitioning service can not use: other modes, output files and the
+   * settings of the generator, the benchmark and the service
+   */
+  private static final Set<String> NON_JOB_OPTIONS = new HashSet<>(Arrays.asList(
+          "-help", "-daemon", "-benchmark", "-generate", "-analyze", "-replay",
+          "-outputDir", "-journal", "-replayRound", "-traceNode",
+          "-benchmarkSuite", "-benchmarkSeeds", "-baseline", "-saveBaseline", "-regressionTolerance",
+          "-graphModel", "-nodes", "-avgDegree", "-rewiring", "-clusters", "-intraClusterProbability",
+          "-rmatProbabilities", "-binaryGraph", "-generatorMemory",
+          "-port", "-workers", "-queueSize", "-graphCacheSize", "-resultCacheSize"));
+
+  /**
+   * Defaults of the partitioner options, shared with embedders using {@link Config#withDefaults()}
+   */
+  private static final Config DEFAULTS = Config.withDefaults();
+
   @Option(name = "-help", usage = "Print usages.")
   private boolean HELP = false;
 
   @Option(name = "-rounds", usage = "Number of rounds.")
-  private int ROUNDS = 1000;
+  private int ROUNDS = DEFAULTS.getRounds();
 
   @Option(name = "-numPartitions", usage = "Number of partitions.")
-  private int NUM_PARTITIONS = 4;
+  private int NUM_PARTITIONS = DEFAULTS.getNumPartitions();
 
   @Option(name = "-uniformRandSampleSize", usage = "Uniform random sample size.")
-  private int UNIFORM_RAND_SAMPLE_SIZE = 6;
+  private int UNIFORM_RAND_SAMPLE_SIZE = DEFAULTS.getUniformRandomSampleSize();
 
   @Option(name = "-reset", usage = "Reset SA each X iterations (no reset: 0).")
-  private int RESET_EACH_N_ITERATION = 0;
+  private int RESET_EACH_N_ITERATION = DEFAULTS.getResetEachNIteration();
 
   @Option(name = "-acceptance", usage = "Use acceptance probability function.")
-  private boolean USE_ACCEPTANCE_PROBABILITY = false;
+  private boolean USE_ACCEPTANCE_PROBABILITY = DEFAULTS.getUseAcceptanceProbability();
 
   @Option(name = "-temp", usage = "Simulated annealing temperature.")
-  private float TEMPERATURE = 2;
+  private float TEMPERATURE = DEFAULTS.getTemperature();
 
-  @Option(name = "-delta", usage = "Simulated annealing delta.")
-  private float DELTA = (float) 0.01;
+  @Option(name = "-delta", usage = "Simulated annealing delta (default: 0.01, for EXPONENTIAL without -acceptance 0.97, for LOGARITHMIC 0.5).")
+  private Float DELTA = null;
 
   @Option(name = "-seed", usage = "Seed.")
-  private int SEED = 0;
+  private int SEED = DEFAULTS.getSeed();
 
   @Option(name = "-alpha", usage = "Alpah parameter")
-  private float ALPHA = 2;
+  private float ALPHA = DEFAULTS.getAlpha();
+
+  @Option(name = "-timeBudget", usage = "Wall-clock budget of the run in seconds (no budget: 0).")
+  private int TIME_BUDGET = DEFAULTS.getTimeBudget();
+
+  @Option(name = "-targetEdgeCut", usage = "Stop as soon as the edge cut, or the topology cost with -topology, is at most this value (disabled: -1).")
+  private long TARGET_EDGE_CUT = DEFAULTS.getTargetEdgeCut();
+
+  @Option(name = "-plateauWindow", usage = "Stop when the best edge cut has not improved for X rounds (disabled: 0).")
+  private int PLATEAU_WINDOW = DEFAULTS.getPlateauWindow();
+
+  @Option(name = "-cooling", usage = "Cooling schedule. Supported, LINEAR, EXPONENTIAL, LOGARITHMIC, ADAPTIVE_ACCEPTANCE, ADAPTIVE_EDGE_CUT (default: EXPONENTIAL with -acceptance, LINEAR otherwise)")
+  private String COOLING_POLICY = null;
+  private CoolingPolicy coolingPolicy = DEFAULTS.getCoolingPolicy();
+
+  @Option(name = "-minSwapRate", usage = "Fraction of swapping nodes per round under which ADAPTIVE_ACCEPTANCE considers the search stalled.")
+  private float MIN_SWAP_RATE = DEFAULTS.getMinSwapRate();
+
+  @Option(name = "-stallRounds", usage = "Number of stalled rounds after which the adaptive cooling schedules reheat.")
+  private int STALL_ROUNDS = DEFAULTS.getStallRounds();
+
+  @Option(name = "-migrationPenalty", usage = "Utility subtracted from a swap for each node it moves away from its initial color (disabled: 0).")
+  private float MIGRATION_PENALTY = DEFAULTS.getMigrationPenalty();
+
+  @Option(name = "-migrationBudget", usage = "Maximum number of nodes allowed away from their initial color (unlimited: -1).")
+  private int MIGRATION_BUDGET = DEFAULTS.getMigrationBudget();
+
+  @Option(name = "-balanceTolerance", usage = "Allowed deviation of the vertex weight of a partition from the average, e.g. 0.05. A positive value enables one-way moves.")
+  private float BALANCE_TOLERANCE = DEFAULTS.getBalanceTolerance();
+
+  @Option(name = "-threads", usage = "Number of threads processing the nodes of a round. With 1 the run is deterministic for a seed.")
+  private int THREADS = DEFAULTS.getThreads();
+
+  @Option(name = "-hubSplitDegree", usage = "Degree from which the neighbors of a node are counted by several threads (disabled: 0).")
+  private int HUB_SPLIT_DEGREE = DEFAULTS.getHubSplitDegree();
+
+  @Option(name = "-topology", usage = "Hierarchy the partitions are placed on, outermost level first, e.g. 4x8x2 for 4 racks of 8 hosts of 2 sockets. Overrides -numPartitions.")
+  private String TOPOLOGY = null;
+
+  @Option(name = "-levelCosts", usage = "With -topology, cost of an edge crossing each level, outermost first, e.g. 100,10,1 (default: 3,2,1 for 3 levels).")
+  private String LEVEL_COSTS = null;
+  private Topology topology = null;
 
   @Option(name = "-randNeighborsSampleSize", usage = "Number of random neighbors sample size.")
-  private int randNeighborsSampleSize = 3;
+  private int randNeighborsSampleSize = DEFAULTS.getRandomNeighborSampleSize();
 
   @Option(name = "-graphInitColorSelectionPolicy", usage = "Initial color celection policy. Supported, RANDOM, ROUND_ROBIN, BATCH")
-  private String GRAPH_INIT_COLOR_SELECTION_POLICY = "ROUND_ROBIN";
-  private GraphInitColorPolicy graphInitColorSelectionPolicy = GraphInitColorPolicy.ROUND_ROBIN;
+  private String GRAPH_INIT_COLOR_SELECTION_POLICY = DEFAULTS.getGraphInitialColorPolicy().toString();
+  private GraphInitColorPolicy graphInitColorSelectionPolicy = DEFAULTS.getGraphInitialColorPolicy();
 
   @Option(name = "-nodeSelectionPolicy", usage = "Node selection plicy. Supported, RANDOM, LOCAL, HYBRID")
-  private String NODE_SELECTION_POLICY = "HYBRID";
-  private NodeSelectionPolicy nodeSelectionPolicy = NodeSelectionPolicy.HYBRID;
+  private String NODE_SELECTION_POLICY = DEFAULTS.getNodeSelectionPolicy().toString();
+  private NodeSelectionPolicy nodeSelectionPolicy = DEFAULTS.getNodeSelectionPolicy();
+
+  @Option(name = "-boundarySampling", usage = "Nodes the uniform random sample is drawn from. Supported, NONE (all nodes), ALL (nodes with a neighbor of another color), BY_COLOR (such nodes of the other colors)")
+  private String BOUNDARY_SAMPLING_POLICY = DEFAULTS.getBoundarySamplingPolicy().toString();
+  private BoundarySamplingPolicy boundarySamplingPolicy = DEFAULTS.getBoundarySamplingPolicy();
 
   @Option(name = "-graph", usage = "Location of the input graph.")
-  private static String GRAPH = "./graphs/ws-250.graph";
+  private String GRAPH = "./graphs/ws-250.graph";
+
+  @Option(name = "-initPartition", usage = "Existing partition (.part.k format) to reshard into -numPartitions partitions.")
+  private String INIT_PARTITION = null;
+
+  @Option(name = "-analyze", usage = "Only compute the quality metrics of the given partition (.part.k or binary) of the graph.")
+  private String ANALYZE_PARTITION = null;
+
+  @Option(name = "-journal", usage = "Write every swap of the run to a binary journal with this path. The partition of every round of the trade-off curve is then written to the output dir too.")
+  private String JOURNAL = null;
+
+  @Option(name = "-replay", usage = "Only rebuild the coloring of a run from its swap journal and write it to the output dir.")
+  private String REPLAY = null;
+
+  @Option(name = "-replayRound", usage = "Last round applied by -replay (partition the run returned: -1).")
+  private int REPLAY_ROUND = -1;
+
+  @Option(name = "-traceNode", usage = "With -replay, list the color changes of the node with this id (none: 0).")
+  private int TRACE_NODE = 0;
+
+  @Option(name = "-benchmark", usage = "Only benchmark the partitioner on every .graph file of this directory.")
+  private String BENCHMARK = null;
+
+  @Option(name = "-benchmarkSuite", usage = "With -benchmark, file of named configurations, one per line: name followed by its options.")
+  private String BENCHMARK_SUITE = null;
+
+  @Option(name = "-benchmarkSeeds", usage = "With -benchmark, number of seeds every configuration is run with, from -seed on.")
+  private int BENCHMARK_SEEDS = 3;
+
+  @Option(name = "-baseline", usage = "With -benchmark, baseline results to compare with. The run fails on a regression.")
+  private String BASELINE = null;
+
+  @Option(name = "-saveBaseline", usage = "With -benchmark, write the results to the -baseline file instead of comparing.")
+  private boolean SAVE_BASELINE = false;
+
+  @Option(name = "-regressionTolerance", usage = "With -baseline, relative loss of edge cut, time to reach it or swaps per second reported as a regression.")
+  private float REGRESSION_TOLERANCE = (float) 0.1;
+
+  @Option(name = "-generate", usage = "Only generate a synthetic graph of -graphModel to this file.")
+  private String GENERATE = null;
+
+  @Option(name = "-graphModel", usage = "Model of the generated graph. Supported, WATTS_STROGATZ, CLUSTERED, RMAT, BARABASI_ALBERT")
+  private String GRAPH_MODEL = "WATTS_STROGATZ";
+  private GraphModel graphModel = GraphModel.WATTS_STROGATZ;
+
+  @Option(name = "-nodes", usage = "Number of nodes of the generated graph.")
+  private int NODES = 1000000;
+
+  @Option(name = "-avgDegree", usage = "Average degree of the generated graph, before duplicate edges are removed.")
+  private int AVG_DEGREE = 10;
+
+  @Option(name = "-rewiring", usage = "WATTS_STROGATZ probability of rewiring an edge of the lattice.")
+  private float REWIRING = (float) 0.1;
+
+  @Option(name = "-clusters", usage = "CLUSTERED number of clusters.")
+  private int CLUSTERS = 4;
+
+  @Option(name = "-intraClusterProbability", usage = "CLUSTERED probability that an edge stays inside its cluster, e.g. 0.95 like synth-0.95.")
+  private float INTRA_CLUSTER_PROBABILITY = (float) 0.95;
+
+  @Option(name = "-rmatProbabilities", usage = "RMAT probabilities of the top left, top right and bottom left quadrants.")
+  private String RMAT_PROBABILITIES = "0.57,0.19,0.19";
+  private float[] rmatProbabilities;
+
+  @Option(name = "-binaryGraph", usage = "Write the generated graph in the binary graph format instead of the Jostle format.")
+  private boolean BINARY_GRAPH = false;
+
+  @Option(name = "-generatorMemory", usage = "Memory in MB the generator uses for its buffers and to sort the edges of a range of nodes.")
+  private int GENERATOR_MEMORY = 256;
 
   @Option(name = "-outputDir", usage = "Location of the output file(s)")
-  private static String OUTPUT_DIR = "./output";
+  private String OUTPUT_DIR = "./output";
+
+  @Option(name = "-daemon", usage = "Run as a partitioning service accepting jobs over HTTP.")
+  private boolean DAEMON = false;
+
+  @Option(name = "-port", usage = "Port of the partitioning service (localhost only).")
+  private int PORT = 8080;
+
+  @Option(name = "-workers", usage = "Number of jobs the partitioning service runs at the same time.")
+  private int WORKERS = Runtime.getRuntime().availableProcessors();
+
+  @Option(name = "-queueSize", usage = "Number of jobs the partitioning service queues before rejecting new ones.")
+  private int QUEUE_SIZE = 64;
+
+  @Option(name = "-graphCacheSize", usage = "Memory in MB the partitioning service uses to keep parsed graphs.")
+  private int GRAPH_CACHE_SIZE = 1024;
+
+  @Option(name = "-resultCacheSize", usage = "Memory in MB the partitioning service uses to keep the partitions of finished jobs.")
+  private int RESULT_CACHE_SIZE = 256;
 
   public Config parseArgs(String[] args) throws FileNotFoundException {
     CmdLineParser parser = new CmdLineParser(this);
     parser.setUsageWidth(80);
     try {
       // parse the arguments.
-      parser.parseArgument(args);
-      if (GRAPH_INIT_COLOR_SELECTION_POLICY.compareToIgnoreCase(GraphInitColorPolicy.RANDOM.toString()) == 0) {
-        graphInitColorSelectionPolicy = GraphInitColorPolicy.RANDOM;
-      } else if (GRAPH_INIT_COLOR_SELECTION_POLICY.compareToIgnoreCase(GraphInitColorPolicy.BATCH.toString()) == 0) {
-        graphInitColorSelectionPolicy = GraphInitColorPolicy.BATCH;
-      } else if (GRAPH_INIT_COLOR_SELECTION_POLICY.compareToIgnoreCase(GraphInitColorPolicy.ROUND_ROBIN.toString()) == 0) {
-        graphInitColorSelectionPolicy = GraphInitColorPolicy.ROUND_ROBIN;
-      } else {
-        throw new IllegalArgumentException("Initial color selection policy is not supported");
-      }
-
-      if (NODE_SELECTION_POLICY.compareToIgnoreCase(NodeSelectionPolicy.RANDOM.toString()) == 0) {
-        nodeSelectionPolicy = NodeSelectionPolicy.RANDOM;
-      } else if (NODE_SELECTION_POLICY.compareToIgnoreCase(NodeSelectionPolicy.LOCAL.toString()) == 0) {
-        nodeSelectionPolicy = NodeSelectionPolicy.LOCAL;
-      } else if (NODE_SELECTION_POLICY.compareToIgnoreCase(NodeSelectionPolicy.HYBRID.toString()) == 0) {
-        nodeSelectionPolicy = NodeSelectionPolicy.HYBRID;
-      } else {
-        throw new IllegalArgumentException("Node selection policy is not supported");
-      }
-
+      parse(parser, args);
     } catch (Exception e) {
       logger.error(e.getMessage());
       parser.printUsage(System.err);
       System.exit(-1);
     }
 
-    File graphFile = new File(GRAPH);
-    if (!graphFile.exists() || !graphFile.isFile()) {
-      throw new FileNotFoundException("Graph file does not exist.");
-    }
+    checkFiles();
 
     if (HELP) {
       parser.printUsage(System.out);
       System.exit(0);
     }
 
+    return createConfig();
+  }
+
+  /**
+   * Parses the arguments of a job submitted to the partitioning service. A job only partitions,
+   * so the options of the other modes, of the files the command line writes and of the service
+   * itself are refused rather than ignored, and the graph has to be given.
+   * Unlike {@link #parseArgs(String[])} it reports errors with exceptions and never exits.
+   */
+  public Config parseJobArgs(String[] args) throws CmdLineException, FileNotFoundException {
+    boolean hasGraph = false;
+    for (String arg : args) {
+      if (NON_JOB_OPTIONS.contains(arg)) {
+        throw new IllegalArgumentException(arg + " can not be used in a job");
+      }
+      hasGraph |= arg.equals("-graph");
+    }
+    if (!hasGraph) {
+      throw new IllegalArgumentException("A job needs a -graph");
+    }
+    return parseRunArgs(args);
+  }
+
+  /**
+   * Parses the arguments of one run of the benchmark, which are the benchmark command line
+   * followed by the options of the run. Errors are reported with exceptions.
+   */
+  public Config parseRunArgs(String[] args) throws CmdLineException, FileNotFoundException {
+    parse(new CmdLineParser(this), args);
+    checkFiles();
+    return createConfig();
+  }
+
+  private void parse(CmdLineParser parser, String[] args) throws CmdLineException {
+    parser.parseArgument(args);
+
+    if (GRAPH_INIT_COLOR_SELECTION_POLICY.compareToIgnoreCase(GraphInitColorPolicy.RANDOM.toString()) == 0) {
+      graphInitColorSelectionPolicy = GraphInitColorPolicy.RANDOM;
+    } else if (GRAPH_INIT_COLOR_SELECTION_POLICY.compareToIgnoreCase(GraphInitColorPolicy.BATCH.toString()) == 0) {
+      graphInitColorSelectionPolicy = GraphInitColorPolicy.BATCH;
+    } else if (GRAPH_INIT_COLOR_SELECTION_POLICY.compareToIgnoreCase(GraphInitColorPolicy.ROUND_ROBIN.toString()) == 0) {
+      graphInitColorSelectionPolicy = GraphInitColorPolicy.ROUND_ROBIN;
+    } else {
+      throw new IllegalArgumentException("Initial color selection policy is not supported");
+    }
+
+    if (NODE_SELECTION_POLICY.compareToIgnoreCase(NodeSelectionPolicy.RANDOM.toString()) == 0) {
+      nodeSelectionPolicy = NodeSelectionPolicy.RANDOM;
+    } else if (NODE_SELECTION_POLICY.compareToIgnoreCase(NodeSelectionPolicy.LOCAL.toString()) == 0) {
+      nodeSelectionPolicy = NodeSelectionPolicy.LOCAL;
+    } else if (NODE_SELECTION_POLICY.compareToIgnoreCase(NodeSelectionPolicy.HYBRID.toString()) == 0) {
+      nodeSelectionPolicy = NodeSelectionPolicy.HYBRID;
+    } else {
+      throw new IllegalArgumentException("Node selection policy is not supported");
+    }
+
+    boundarySamplingPolicy = null;
+    for (BoundarySamplingPolicy policy : BoundarySamplingPolicy.values()) {
+      if (BOUNDARY_SAMPLING_POLICY.compareToIgnoreCase(policy.toString()) == 0) {
+        boundarySamplingPolicy = policy;
+      }
+    }
+    if (boundarySamplingPolicy == null) {
+      throw new IllegalArgumentException("Boundary sampling policy is not supported");
+    }
+
+    graphModel = null;
+    for (GraphModel model : GraphModel.values()) {
+      if (GRAPH_MODEL.compareToIgnoreCase(model.toString()) == 0) {
+        graphModel = model;
+      }
+    }
+    if (graphModel == null) {
+      throw new IllegalArgumentException("Graph model is not supported");
+    }
+
+    String[] probabilities = RMAT_PROBABILITIES.split(",");
+    if (probabilities.length != 3) {
+      throw new IllegalArgumentException("R-MAT needs three probabilities");
+    }
+    rmatProbabilities = new float[3];
+    for (int i = 0; i < 3; i++) {
+      rmatProbabilities[i] = Float.parseFloat(probabilities[i].trim());
+    }
+
+    if (TOPOLOGY != null) {
+      topology = Topology.parse(TOPOLOGY, LEVEL_COSTS);
+    } else if (LEVEL_COSTS != null) {
+      throw new IllegalArgumentException("Level costs need a topology");
+    }
+
+    if (COOLING_POLICY == null) {
+      coolingPolicy = USE_ACCEPTANCE_PROBABILITY ? CoolingPolicy.EXPONENTIAL : DEFAULTS.getCoolingPolicy();
+    } else {
+      coolingPolicy = null;
+      for (CoolingPolicy policy : CoolingPolicy.values()) {
+        if (COOLING_POLICY.compareToIgnoreCase(policy.toString()) == 0) {
+          coolingPolicy = policy;
+        }
+      }
+      if (coolingPolicy == null) {
+        throw new IllegalArgumentException("Cooling policy is not supported");
+      }
+    }
+  }
+
+  private void checkFiles() throws FileNotFoundException {
+    File graphFile = new File(GRAPH);
+    if (!DAEMON && BENCHMARK == null && GENERATE == null && (!graphFile.exists() || !graphFile.isFile())) {
+      throw new FileNotFoundException("Graph file does not exist.");
+    }
+
+    if (INIT_PARTITION != null) {
+      File partitionFile = new File(INIT_PARTITION);
+      if (!partitionFile.exists() || !partitionFile.isFile()) {
+        throw new FileNotFoundException("Initial partition file does not exist.");
+      }
+    }
+
+    if (ANALYZE_PARTITION != null) {
+      File partitionFile = new File(ANALYZE_PARTITION);
+      if (!partitionFile.exists() || !partitionFile.isFile()) {
+        throw new FileNotFoundException("Partition file to analyze does not exist.");
+      }
+    }
+
+    if (REPLAY != null) {
+      File initFile = new File(SwapJournal.getInitPath(REPLAY));
+      if (!initFile.exists() || !initFile.isFile()) {
+        throw new FileNotFoundException("Swap journal to replay does not exist.");
+      }
+    }
+
+    if (BENCHMARK != null && !new File(BENCHMARK).isDirectory()) {
+      throw new FileNotFoundException("Benchmark graph directory does not exist.");
+    }
+
+    if (BENCHMARK_SUITE != null && !new File(BENCHMARK_SUITE).isFile()) {
+      throw new FileNotFoundException("Benchmark suite file does not exist.");
+    }
+
+    if (BASELINE != null && !SAVE_BASELINE && !new File(BASELINE).isFile()) {
+      throw new FileNotFoundException("Baseline file does not exist.");
+    }
+  }
+
+  private Config createConfig() {
     return new Config().setRandNeighborsSampleSize(randNeighborsSampleSize)
             .setDelta(DELTA)
-            .setNumPartitions(NUM_PARTITIONS)
+            .setNumPartitions(topology != null ? topology.getNumPartitions() : NUM_PARTITIONS)
             .setUniformRandSampleSize(UNIFORM_RAND_SAMPLE_SIZE)
             .setRounds(ROUNDS)
             .setSeed(SEED)
@@ -116,8 +396,49 @@ public class CLI {
             .setTemperature(TEMPERATURE)
             .setGraphFilePath(GRAPH)
             .setNodeSelectionPolicy(nodeSelectionPolicy)
+            .setBoundarySamplingPolicy(boundarySamplingPolicy)
             .setGraphInitialColorPolicy(graphInitColorSelectionPolicy)
             .setOutputDir(OUTPUT_DIR)
-            .setAlpha(ALPHA);
+            .setAlpha(ALPHA)
+            .setTimeBudget(TIME_BUDGET)
+            .setTargetEdgeCut(TARGET_EDGE_CUT)
+            .setPlateauWindow(PLATEAU_WINDOW)
+            .setCoolingPolicy(coolingPolicy)
+            .setMinSwapRate(MIN_SWAP_RATE)
+            .setStallRounds(STALL_ROUNDS)
+            .setMigrationPenalty(MIGRATION_PENALTY)
+            .setMigrationBudget(MIGRATION_BUDGET)
+            .setBalanceTolerance(BALANCE_TOLERANCE)
+            .setThreads(THREADS)
+            .setHubSplitDegree(HUB_SPLIT_DEGREE)
+            .setTopology(topology)
+            .setInitPartitionFilePath(INIT_PARTITION)
+            .setAnalyzePartitionFilePath(ANALYZE_PARTITION)
+            .setJournalFilePath(JOURNAL)
+            .setReplayJournalFilePath(REPLAY)
+            .setReplayRound(REPLAY_ROUND)
+            .setTraceNode(TRACE_NODE)
+            .setBenchmarkDir(BENCHMARK)
+            .setBenchmarkSuitePath(BENCHMARK_SUITE)
+            .setBenchmarkSeeds(BENCHMARK_SEEDS)
+            .setBaselineFilePath(BASELINE)
+            .setSaveBaseline(SAVE_BASELINE)
+            .setRegressionTolerance(REGRESSION_TOLERANCE)
+            .setGenerateGraphFilePath(GENERATE)
+            .setGraphModel(graphModel)
+            .setGeneratedNodes(NODES)
+            .setAverageDegree(AVG_DEGREE)
+            .setRewiringProbability(REWIRING)
+            .setClusters(CLUSTERS)
+            .setIntraClusterProbability(INTRA_CLUSTER_PROBABILITY)
+            .setRmatProbabilities(rmatProbabilities)
+            .setBinaryGraph(BINARY_GRAPH)
+            .setGeneratorMemory(GENERATOR_MEMORY)
+            .setDaemon(DAEMON)
+            .setPort(PORT)
+            .setWorkers(WORKERS)
+            .setQueueSize(QUEUE_SIZE)
+            .setGraphCacheSize(GRAPH_CACHE_SIZE)
+            .setResultCacheSize(RESULT_CACHE_SIZE);
   }
 }
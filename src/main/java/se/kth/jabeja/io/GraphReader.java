@@ -1,14 +1,9 @@
 package se.kth.jabeja.io;
 
 import org.apache.log4j.Logger;
-import se.kth.jabeja.Node;
-import se.kth.jabeja.rand.RandNoGenerator;
-import se.kth.jabeja.config.GraphInitColorPolicy;
+import se.kth.jabeja.graph.CsrGraph;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Created by salman on 10/24/16.
@@ -24,124 +19,173 @@ public class GraphReader {
    * read graph form a file
    * The file format is discussed here
    * http://chriswalshaw.co.uk/jostle/jostle-exe.pdf
+   * <p>
+   * The header is "nodes edges [fmt [ncon]]". The digits of fmt tell whether each node line
+   * starts with a vertex size (100) and ncon vertex weights (010), and whether every neighbor
+   * is followed by an edge weight (001). Only the first vertex weight is used.
+   * <p>
+   * Files starting with {@link GraphWriter#BINARY_MAGIC} are read in the binary format of {@link GraphWriter}.
    *
    * @param graphFilePath
-   * @return
+   * @return the graph, node i of the file being node i - 1 of the graph
+   * @throws IOException if the file can not be read or is malformed
    */
-  public HashMap<Integer, Node> readGraph(final String graphFilePath, final GraphInitColorPolicy colorPolicy, final int noOfPartitions) {
-    final HashMap<Integer, Node> nodes = new HashMap<Integer, Node>();
+  public CsrGraph readGraph(final String graphFilePath) throws IOException {
+    if (isBinary(graphFilePath)) {
+      return readBinary(graphFilePath);
+    }
+    BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(new File(graphFilePath))));
     try {
       String strLine;
-      FileInputStream fis = new FileInputStream(new File(graphFilePath));
-      DataInputStream dis = new DataInputStream(fis);
-      BufferedReader br = new BufferedReader(new InputStreamReader(dis));
-
       int numNodes = 0;
-      int numEdges = 0;
+      long numEdges = 0;
+      String fmt = "000";
+      int ncon = 0;
 
       // first uncommented line contain information about
       // number of nodes and number of edges
       while ((strLine = br.readLine()) != null) {
-        if (strLine.startsWith("%") || strLine.startsWith("#"))
+        if (isComment(strLine))
           continue;
 
-        String[] parts = strLine.split(DELIMETER);
+        String[] parts = strLine.trim().split("\\s+");
         numNodes = Integer.parseInt(parts[0]);
-        numEdges = Integer.parseInt(parts[1]);
+        numEdges = Long.parseLong(parts[1]);
+        if (parts.length > 2) {
+          fmt = "000".substring(Math.min(parts[2].length(), 3)) + parts[2];
+        }
+        if (parts.length > 3) {
+          ncon = Integer.parseInt(parts[3]);
+        }
         break;
       }
 
-      logger.info(graphFilePath + ". Nodes: " + numNodes + ", Edges: " + numEdges);
-
-      int id = 0;
-      int partitionSize = numNodes / noOfPartitions;
+      boolean hasVertexSizes = fmt.charAt(fmt.length() - 3) == '1';
+      boolean hasVertexWeights = fmt.charAt(fmt.length() - 2) == '1';
+      boolean hasEdgeWeights = fmt.charAt(fmt.length() - 1) == '1';
+      if (hasVertexWeights && ncon == 0) {
+        ncon = 1;
+      }
+      int skip = (hasVertexSizes ? 1 : 0) + (hasVertexWeights ? ncon : 0);
 
-      while ((strLine = br.readLine()) != null) {
+      logger.info(graphFilePath + ". Nodes: " + numNodes + ", Edges: " + numEdges
+              + (hasVertexWeights ? ", vertex weights" : "") + (hasEdgeWeights ? ", edge weights" : ""));
 
-        id++;
-        ArrayList<Integer> neighbours = new ArrayList<Integer>();
+      CsrGraph.Builder builder = new CsrGraph.Builder(numNodes, 2 * numEdges);
+      int[] values = new int[16];
+      int[] neighbours = new int[16];
+      int[] edgeWeights = hasEdgeWeights ? new int[16] : null;
 
-        if (strLine.startsWith("%") || strLine.startsWith("#")) {
+      while (builder.getAddedNodes() < numNodes && (strLine = br.readLine()) != null) {
+        if (isComment(strLine)) {
           continue;
         }
 
+        int numValues = 0;
         String[] parts = strLine.split(DELIMETER);
         for (int i = 0; i < parts.length; i++) {
           if (parts[i].equals(EMPTY_STRING)) {
             continue;
           }
-          neighbours.add(Integer.parseInt(parts[i]));
+          if (numValues == values.length) {
+            values = grow(values);
+          }
+          values[numValues++] = Integer.parseInt(parts[i].trim());
         }
 
+        int count = 0;
+        int step = hasEdgeWeights ? 2 : 1;
+        for (int i = skip; i < numValues; i += step) {
+          if (count == neighbours.length) {
+            neighbours = grow(neighbours);
+            if (hasEdgeWeights) {
+              edgeWeights = grow(edgeWeights);
+            }
+          }
+          if (hasEdgeWeights) {
+            if (i + 1 >= numValues) {
+              throw new IOException(graphFilePath + ": missing edge weight at node " + (builder.getAddedNodes() + 1));
+            }
+            edgeWeights[count] = values[i + 1];
+          }
+          neighbours[count++] = values[i] - 1;
+        }
 
-        int color = getColor(numNodes, noOfPartitions, id, colorPolicy);
-
-        Node node = new Node(id, color);
-        node.setNeighbours(neighbours);
-        nodes.put(id, node);
+        if (hasVertexWeights) {
+          int weight = numValues > (hasVertexSizes ? 1 : 0) ? values[hasVertexSizes ? 1 : 0] : 1;
+          builder.addNode(weight, neighbours, edgeWeights, count);
+        } else {
+          builder.addNode(neighbours, edgeWeights, count);
+        }
       }
 
-      fis.close();
-    } catch (IOException e) {
-      System.err.println("can not read from file " + graphFilePath);
+      if (builder.getAddedNodes() != numNodes) {
+        throw new IOException(graphFilePath + " has " + builder.getAddedNodes() + " nodes but declares " + numNodes);
+      }
+      return builder.build();
+    } catch (NumberFormatException e) {
+      throw new IOException("Malformed graph file " + graphFilePath + ": " + e.getMessage());
+    } finally {
+      br.close();
     }
-    printColorDistribution(nodes);
-    return nodes;
   }
 
-
-  /**
-   * Generate a color according to the policy.
-   * The range of colors are [0, numPartitions)
-   *
-   * @param numNodes
-   * @param numPartitions
-   * @param id
-   * @param colorPolicy
-   * @return color
-   */
-  private int getColor(int numNodes, int numPartitions, int id, GraphInitColorPolicy colorPolicy) {
-    if (colorPolicy == GraphInitColorPolicy.BATCH) {
-      double partitionSize = (double) numNodes / (double) numPartitions;
-      for (int i = 0; i < numPartitions; i++) {
-        double upperLimit = (i + 1) * partitionSize;
-        if (id <= upperLimit) {
-          return i;
-        }
-      }
-      throw new IllegalStateException(colorPolicy + " Unable to determine color for id: " + id);
-    } else if (colorPolicy == GraphInitColorPolicy.RANDOM) {
-      return RandNoGenerator.nextInt(numPartitions);
-
-    } else if (colorPolicy == GraphInitColorPolicy.ROUND_ROBIN) {
-      return id % numPartitions;
-    } else {
-      throw new UnsupportedOperationException(colorPolicy + " for color inital color selection is not not implemented");
+  private boolean isBinary(final String graphFilePath) throws IOException {
+    DataInputStream dis = new DataInputStream(new FileInputStream(graphFilePath));
+    try {
+      return dis.readInt() == GraphWriter.BINARY_MAGIC;
+    } catch (EOFException e) {
+      return false;
+    } finally {
+      dis.close();
     }
   }
 
-  /**
-   * Prints the distribution of the colors of the graph
-   *
-   * @param graph input graph
-   */
-  private void printColorDistribution(HashMap<Integer, Node> graph) {
-    Map<Integer, Integer> distribution = new HashMap<Integer, Integer>();
-    for (int i : graph.keySet()) {
-      int color = graph.get(i).getColor();
-      Integer count = distribution.get(color);
-      if (count == null) {
-        count = new Integer(0);
+  private CsrGraph readBinary(final String graphFilePath) throws IOException {
+    DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(graphFilePath), 1 << 16));
+    try {
+      dis.readInt(); // magic
+      int version = dis.readInt();
+      if (version != GraphWriter.BINARY_VERSION) {
+        throw new IOException(graphFilePath + " has unsupported version " + version);
       }
-      distribution.put(color, new Integer(count + 1));
+      int numNodes = dis.readInt();
+      long numEdges = dis.readLong();
+      logger.info(graphFilePath + ". Nodes: " + numNodes + ", Edges: " + numEdges + ", binary");
+
+      CsrGraph.Builder builder = new CsrGraph.Builder(numNodes, 2 * numEdges);
+      int[] neighbours = new int[16];
+      for (int node = 0; node < numNodes; node++) {
+        int degree = dis.readInt();
+        if (degree < 0) {
+          throw new IOException(graphFilePath + ": negative degree at node " + (node + 1));
+        }
+        while (neighbours.length < degree) {
+          neighbours = grow(neighbours);
+        }
+        for (int i = 0; i < degree; i++) {
+          neighbours[i] = dis.readInt();
+          if (neighbours[i] < 0 || neighbours[i] >= numNodes) {
+            throw new IOException(graphFilePath + ": node " + (node + 1) + " has a neighbor that does not exist");
+          }
+        }
+        builder.addNode(neighbours, degree);
+      }
+      return builder.build();
+    } catch (EOFException e) {
+      throw new IOException(graphFilePath + " is truncated");
+    } finally {
+      dis.close();
     }
+  }
 
-    StringBuffer sb = new StringBuffer("Color Distribution : ");
-    for (int i : distribution.keySet()) {
-      int count = distribution.get(i);
-      sb.append("[ Color: ").append(i).append(",").append(" Count: ").append(count).append(" ] ");
-    }
+  private int[] grow(int[] array) {
+    int[] larger = new int[2 * array.length];
+    System.arraycopy(array, 0, larger, 0, array.length);
+    return larger;
+  }
 
-    logger.info(sb);
+  private boolean isComment(String line) {
+    return line.startsWith("%") || line.startsWith("#");
   }
 }
@@ -0,0 +1,134 @@
+package se.kth.jabeja.io;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Writes a graph one node at a time, so a graph larger than the memory can be streamed to disk,
+ * in the Jostle format read by {@link GraphReader} or in a binary format. The number of edges is
+ * only known once every node is written; it goes into the header when the writer is closed.
+ * <p>
+ * Binary layout (big endian): int magic, int version, int number of nodes, long number of edges,
+ * then for every node its degree followed by its neighbors (0-based ids).
+ */
+public class GraphWriter implements Closeable {
+
+  final static Logger logger = Logger.getLogger(GraphWriter.class);
+
+  public static final int BINARY_MAGIC = 0x4A424A47; // "JBJG"
+  public static final int BINARY_VERSION = 1;
+  static final int BINARY_EDGES_OFFSET = 12;
+  /**
+   * Characters reserved for the header line of the Jostle format, padded with spaces
+   */
+  private static final int TEXT_HEADER_WIDTH = 40;
+
+  private final String graphFilePath;
+  private final int numNodes;
+  private final boolean binary;
+  private final DataOutputStream output;
+  private final byte[] digits = new byte[12];
+  private int writtenNodes;
+  private long adjacencyEntries;
+
+  /**
+   * @param graphFilePath destination file
+   * @param numNodes      number of nodes that will be written
+   * @param binary        true for the binary format, false for the Jostle format
+   */
+  public GraphWriter(String graphFilePath, int numNodes, boolean binary) throws IOException {
+    this.graphFilePath = graphFilePath;
+    this.numNodes = numNodes;
+    this.binary = binary;
+    this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(graphFilePath), 1 << 16));
+    if (binary) {
+      output.writeInt(BINARY_MAGIC);
+      output.writeInt(BINARY_VERSION);
+      output.writeInt(numNodes);
+      output.writeLong(0);
+    } else {
+      output.write(getTextHeader(0));
+    }
+  }
+
+  /**
+   * Writes the next node
+   *
+   * @param neighbors 0-based ids of the neighbors
+   * @param count     number of valid entries in neighbors
+   */
+  public void writeNode(int[] neighbors, int count) throws IOException {
+    if (writtenNodes == numNodes) {
+      throw new IOException(graphFilePath + " already has its " + numNodes + " nodes");
+    }
+    if (binary) {
+      output.writeInt(count);
+      for (int i = 0; i < count; i++) {
+        output.writeInt(neighbors[i]);
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        output.write(' ');
+        writeDigits(neighbors[i] + 1);
+      }
+      output.write('\n');
+    }
+    writtenNodes++;
+    adjacencyEntries += count;
+  }
+
+  /**
+   * @return number of edges written so far, every edge being listed by both its nodes
+   */
+  public long getNumEdges() {
+    return adjacencyEntries / 2;
+  }
+
+  /**
+   * Closes the file and writes the number of edges to its header
+   *
+   * @throws IOException if fewer nodes than announced were written
+   */
+  @Override
+  public void close() throws IOException {
+    output.close();
+    if (writtenNodes != numNodes) {
+      throw new IOException(graphFilePath + " has " + writtenNodes + " nodes but should have " + numNodes);
+    }
+    RandomAccessFile file = new RandomAccessFile(graphFilePath, "rw");
+    try {
+      if (binary) {
+        file.seek(BINARY_EDGES_OFFSET);
+        file.writeLong(getNumEdges());
+      } else {
+        file.write(getTextHeader(getNumEdges()));
+      }
+    } finally {
+      file.close();
+    }
+    logger.info("Graph written to " + graphFilePath + ". Nodes: " + numNodes + ", Edges: " + getNumEdges());
+  }
+
+  private byte[] getTextHeader(long numEdges) {
+    StringBuilder sb = new StringBuilder().append(numNodes).append(' ').append(numEdges);
+    while (sb.length() < TEXT_HEADER_WIDTH - 1) {
+      sb.append(' ');
+    }
+    return sb.append('\n').toString().getBytes();
+  }
+
+  private void writeDigits(int value) throws IOException {
+    int start = digits.length;
+    do {
+      digits[--start] = (byte) ('0' + value % 10);
+      value /= 10;
+    } while (value > 0);
+    output.write(digits, start, digits.length - start);
+  }
+}
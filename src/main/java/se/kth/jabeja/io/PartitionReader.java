@@ -0,0 +1,92 @@
+package se.kth.jabeja.io;
+
+import org.apache.log4j.Logger;
+
+import java.io.*;
+
+/**
+ * Reads a partition in the METIS/Jostle .part.k format, where line i holds the color of node i,
+ * or in the binary format written by {@link PartitionWriter#writeBinary}.
+ */
+public class PartitionReader {
+
+  final static Logger logger = Logger.getLogger(PartitionReader.class);
+
+  /**
+   * @param partitionFilePath path of the partition file
+   * @param numNodes          number of nodes of the graph the partition belongs to
+   * @return colors indexed by node id - 1
+   * @throws IOException if the file can not be read or does not match the graph
+   */
+  public int[] readPartition(final String partitionFilePath, final int numNodes) throws IOException {
+    if (isBinary(partitionFilePath)) {
+      return readBinary(partitionFilePath, numNodes);
+    }
+
+    int[] colors = new int[numNodes];
+    BufferedReader br = new BufferedReader(new FileReader(partitionFilePath));
+    try {
+      String strLine;
+      int index = 0;
+      while ((strLine = br.readLine()) != null) {
+        strLine = strLine.trim();
+        if (strLine.isEmpty() || strLine.startsWith("%") || strLine.startsWith("#")) {
+          continue;
+        }
+        if (index == numNodes) {
+          throw new IOException(partitionFilePath + " has more than " + numNodes + " entries");
+        }
+        int color = Integer.parseInt(strLine);
+        if (color < 0) {
+          throw new IOException(partitionFilePath + " has a negative color for node " + (index + 1));
+        }
+        colors[index++] = color;
+      }
+      if (index != numNodes) {
+        throw new IOException(partitionFilePath + " has " + index + " entries but the graph has " + numNodes + " nodes");
+      }
+    } finally {
+      br.close();
+    }
+    logger.info("Read partition " + partitionFilePath);
+    return colors;
+  }
+
+  private boolean isBinary(final String partitionFilePath) throws IOException {
+    DataInputStream dis = new DataInputStream(new FileInputStream(partitionFilePath));
+    try {
+      return dis.readInt() == PartitionWriter.BINARY_MAGIC;
+    } catch (EOFException e) {
+      return false;
+    } finally {
+      dis.close();
+    }
+  }
+
+  private int[] readBinary(final String partitionFilePath, final int numNodes) throws IOException {
+    DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(partitionFilePath)));
+    try {
+      dis.readInt(); // magic
+      int version = dis.readInt();
+      if (version != PartitionWriter.BINARY_VERSION) {
+        throw new IOException(partitionFilePath + " has unsupported version " + version);
+      }
+      int fileNumNodes = dis.readInt();
+      if (fileNumNodes != numNodes) {
+        throw new IOException(partitionFilePath + " has " + fileNumNodes + " entries but the graph has " + numNodes + " nodes");
+      }
+      dis.readInt(); // number of partitions
+      int[] colors = new int[numNodes];
+      for (int i = 0; i < numNodes; i++) {
+        colors[i] = dis.readInt();
+        if (colors[i] < 0) {
+          throw new IOException(partitionFilePath + " has a negative color for node " + (i + 1));
+        }
+      }
+      logger.info("Read partition " + partitionFilePath);
+      return colors;
+    } finally {
+      dis.close();
+    }
+  }
+}
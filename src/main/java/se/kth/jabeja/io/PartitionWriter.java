@@ -0,0 +1,63 @@
+package se.kth.jabeja.io;
+
+import org.apache.log4j.Logger;
+
+import java.io.*;
+
+/**
+ * Writes the color of every node, either as METIS/Jostle .part.k text (line i holds the
+ * color of node i) or in a compact binary form that {@link PartitionReader} also reads.
+ */
+public class PartitionWriter {
+
+  final static Logger logger = Logger.getLogger(PartitionWriter.class);
+
+  /**
+   * First int of a binary partition file
+   */
+  public static final int BINARY_MAGIC = 0x4A424A50; // "JBJP"
+  public static final int BINARY_VERSION = 1;
+
+  /**
+   * @param colors            colors indexed by node id - 1
+   * @param partitionFilePath destination file
+   * @throws IOException
+   */
+  public void writeText(final int[] colors, final String partitionFilePath) throws IOException {
+    Writer output = new BufferedWriter(new FileWriter(partitionFilePath, false));
+    try {
+      for (int color : colors) {
+        output.write(Integer.toString(color));
+        output.write('\n');
+      }
+    } finally {
+      output.close();
+    }
+    logger.info("Partition written to " + partitionFilePath);
+  }
+
+  /**
+   * Binary layout (big endian ints): magic, version, number of nodes, number of partitions,
+   * followed by the color of every node.
+   *
+   * @param colors            colors indexed by node id - 1
+   * @param numPartitions     number of partitions
+   * @param partitionFilePath destination file
+   * @throws IOException
+   */
+  public void writeBinary(final int[] colors, final int numPartitions, final String partitionFilePath) throws IOException {
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partitionFilePath)));
+    try {
+      output.writeInt(BINARY_MAGIC);
+      output.writeInt(BINARY_VERSION);
+      output.writeInt(colors.length);
+      output.writeInt(numPartitions);
+      for (int color : colors) {
+        output.writeInt(color);
+      }
+    } finally {
+      output.close();
+    }
+    logger.info("Partition written to " + partitionFilePath);
+  }
+}
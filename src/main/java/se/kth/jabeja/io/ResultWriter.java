@@ -0,0 +1,178 @@
+package se.kth.jabeja.io;
+
+import org.apache.log4j.Logger;
+import se.kth.jabeja.TradeOffCurve;
+import se.kth.jabeja.annealing.CoolingSchedules;
+import se.kth.jabeja.api.PartitionResult;
+import se.kth.jabeja.api.ProgressListener;
+import se.kth.jabeja.api.RoundReport;
+import se.kth.jabeja.config.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the results of a command line run to the output dir: the per-round
+ * summary in text and csv, the edge cut / migrations trade-off curve and the
+ * final partition. With a topology the summary has a topology cost column, and the
+ * trade-off curve is drawn for the topology cost, which is what the run minimizes.
+ * With a swap journal the partition of every point of the trade-off curve is rebuilt
+ * from the journal, which has to be closed before {@link #finish} is called.
+ */
+public class ResultWriter implements ProgressListener {
+  final static Logger logger = Logger.getLogger(ResultWriter.class);
+  public static final String TEXT_FILE = "\t\t";
+  public static final String CSV_FILE = ",";
+
+  private final Config config;
+  private final TradeOffCurve tradeOffCurve = new TradeOffCurve();
+  private boolean resultFileCreated = false;
+  private IOException error;
+
+  public ResultWriter(Config config) {
+    this.config = config;
+  }
+
+  @Override
+  public void onRound(RoundReport report) {
+    tradeOffCurve.add(report.getRound(), report.getObjective(), report.getMigrations());
+    if (error != null) {
+      return;
+    }
+    try {
+      saveToFile(report, CSV_FILE);
+      saveToFile(report, TEXT_FILE);
+    } catch (IOException e) {
+      logger.error("Unable to write the round results: " + e.getMessage());
+      error = e;
+    }
+  }
+
+  /**
+   * Writes the files of the end of the run
+   *
+   * @param result outcome of the run
+   * @throws IOException if this or any earlier write failed
+   */
+  public void finish(PartitionResult result) throws IOException {
+    if (error != null) {
+      throw error;
+    }
+    if (!resultFileCreated) {
+      return;
+    }
+    saveTradeOffCurve();
+    if (config.hasJournalFile()) {
+      saveTradeOffPartitions();
+    }
+    savePartition(result.getColors());
+  }
+
+  private void saveToFile(RoundReport report, String delimiter) throws IOException {
+    String outputFilePath = getOutputFilePath(delimiter.equals(CSV_FILE) ? ".csv" : ".txt");
+
+    if (!resultFileCreated) {
+      File outputDir = new File(config.getOutputDir());
+      if (!outputDir.exists()) {
+        if (!outputDir.mkdir()) {
+          throw new IOException("Unable to create the output directory");
+        }
+      }
+      // create folder and result file with header
+      String header = "# Migration is number of nodes that have changed color.";
+      header += "\n\nRound" + delimiter + "Edge-Cut" + delimiter
+              + (config.hasTopology() ? "Topology-Cost" + delimiter : "")
+              + "Swaps" + delimiter + "Migrations" + delimiter + "Skipped" + "\n";
+      FileIO.write(header, outputFilePath);
+      resultFileCreated = true;
+    }
+
+    FileIO.append(report.getRound() + delimiter + report.getEdgeCut() + delimiter
+            + (config.hasTopology() ? report.getTopologyCost() + delimiter : "")
+            + report.getSwaps() + delimiter + report.getMigrations() + "\n", outputFilePath);
+  }
+
+  /**
+   * Writes the edge cut (or topology cost) / migrations trade-off curve of the run next to the
+   * result files, so a partition that is cheap to roll out can be picked.
+   *
+   * @throws IOException
+   */
+  private void saveTradeOffCurve() throws IOException {
+    String objective = config.hasTopology() ? "topology cost" : "edge cut";
+    StringBuilder sb = new StringBuilder("# Rounds whose (" + objective + ", migrations) is not dominated by any other round.");
+    sb.append(config.hasJournalFile()
+            ? "\n# The partition of a round is in the " + getTradeOffPartitionSuffix("<round>") + " file next to this one."
+            : "\n# Run with -journal to also get the partition of every round.");
+    sb.append("\n\nRound").append(TEXT_FILE).append(config.hasTopology() ? "Topology-Cost" : "Edge-Cut")
+            .append(TEXT_FILE).append("Migrations").append("\n");
+    for (TradeOffCurve.Point point : tradeOffCurve.getPoints()) {
+      sb.append(point.getRound()).append(TEXT_FILE)
+              .append(point.getEdgeCut()).append(TEXT_FILE)
+              .append(point.getMigrations()).append("\n");
+    }
+    FileIO.write(sb.toString(), getOutputFilePath("_tradeoff.txt"));
+  }
+
+  /**
+   * Writes the partition at the end of every round of the trade-off curve, in .part.k text format
+   *
+   * @throws IOException if the journal can not be replayed
+   */
+  private void saveTradeOffPartitions() throws IOException {
+    List<TradeOffCurve.Point> points = tradeOffCurve.getPoints();
+    int[] rounds = new int[points.size()];
+    for (int i = 0; i < rounds.length; i++) {
+      rounds[i] = points.get(i).getRound();
+    }
+    Arrays.sort(rounds);
+    final PartitionWriter writer = new PartitionWriter();
+    new SwapJournalReader(config.getJournalFilePath()).replay(rounds, new SwapJournalReader.ColoringHandler() {
+      @Override
+      public void onColoring(int round, int[] colors) throws IOException {
+        writer.writeText(colors, getOutputFilePath(getTradeOffPartitionSuffix(String.valueOf(round))));
+      }
+    });
+    logger.info("Partitions of the " + rounds.length + " trade-off rounds written to " + config.getOutputDir());
+  }
+
+  private String getTradeOffPartitionSuffix(String round) {
+    return "_tradeoff_round_" + round + ".part." + config.getNumPartitions();
+  }
+
+  /**
+   * Writes the final color of every node in .part.k text format and in binary format
+   *
+   * @throws IOException
+   */
+  private void savePartition(int[] colors) throws IOException {
+    String partitionFilePath = getOutputFilePath(".part." + config.getNumPartitions());
+    PartitionWriter writer = new PartitionWriter();
+    writer.writeText(colors, partitionFilePath);
+    writer.writeBinary(colors, config.getNumPartitions(), partitionFilePath + ".bin");
+  }
+
+  /**
+   * @param suffix appended to the file name, including the extension
+   * @return path of an output file named after the input graph and the run parameters
+   */
+  private String getOutputFilePath(String suffix) {
+    File inputFile = new File(config.getGraphFilePath());
+    return config.getOutputDir() +
+            File.separator +
+            inputFile.getName() + "_" +
+//            config.getNodeSelectionPolicy() + "_" +
+//            "GICP" + "_" + config.getGraphInitialColorPolicy() + "_" +
+            "T" + "_" + config.getTemperature() + "_" +
+            "AP" + "_" + config.getUseAcceptanceProbability() + "_" +
+            "R" + "_" + config.getResetEachNIteration() + "_" +
+            "D" + "_" + CoolingSchedules.getDelta(config) + "_" +
+//            "RNSS" + "_" + config.getRandomNeighborSampleSize() + "_" +
+//            "URSS" + "_" + config.getUniformRandomSampleSize() + "_" +
+            "A" + "_" + config.getAlpha() + "_" +
+//            "R" + "_" + config.getRounds() +
+            suffix;
+  }
+}
@@ -0,0 +1,210 @@
+package se.kth.jabeja.io;
+
+import org.apache.log4j.Logger;
+import se.kth.jabeja.api.SwapListener;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Append-only binary journal of the color changes of a run, so the coloring of any round can be
+ * rebuilt with {@link SwapJournalReader} and the history of a node can be explained.
+ * <p>
+ * The starting colors are written to "journal.init" in the binary partition format. The changes go
+ * to memory-mapped segment files "journal.0", "journal.1", ... Each segment starts with a header of
+ * big endian ints: magic, version, number of nodes, number of partitions, segment number, number of
+ * records and the round at the end of which the run had the coloring it returned (-1 until the run
+ * ends, only set in the first segment). It is followed by records of five ints: round, node1, node2
+ * (-1 for a one-way move), the color of node1 before the change and the color of node2 before the
+ * change (the new color of node1 for a one-way move).
+ * <p>
+ * Records are collected in a small buffer that is copied to the mapped segment when it is full
+ * and at the end of every round, so the swap loop never waits on a write call; the kernel writes
+ * the mapped pages back on its own.
+ */
+public class SwapJournal implements SwapListener, Closeable {
+
+  final static Logger logger = Logger.getLogger(SwapJournal.class);
+
+  public static final int MAGIC = 0x4A424A4A; // "JBJJ"
+  public static final int VERSION = 2;
+  public static final int HEADER_INTS = 7;
+  public static final int RECORD_INTS = 5;
+  public static final int NO_NODE = -1;
+  static final int RECORDS_OFFSET = 5;
+  static final int FINAL_ROUND_OFFSET = 6;
+  /**
+   * Records per segment file (about 64MB)
+   */
+  static final int SEGMENT_RECORDS = 1 << 22;
+  /**
+   * Records collected before they are copied to the segment
+   */
+  private static final int BUFFER_RECORDS = 1 << 12;
+
+  private final String journalPath;
+  private final int[] buffer = new int[BUFFER_RECORDS * RECORD_INTS];
+  private int buffered;
+  private int numNodes;
+  private int numPartitions;
+  private int lastRound = -1;
+  private int segment = -1;
+  private MappedByteBuffer mapped;
+  private MappedByteBuffer firstSegment;
+  private IntBuffer segmentInts;
+  private int segmentRecords;
+  private long totalRecords;
+  private IOException error;
+
+  /**
+   * @param journalPath path the journal files are named after
+   */
+  public SwapJournal(String journalPath) {
+    this.journalPath = journalPath;
+  }
+
+  /**
+   * @return path of the file holding the starting colors of the journal
+   */
+  public static String getInitPath(String journalPath) {
+    return journalPath + ".init";
+  }
+
+  /**
+   * @return path of the given segment file of the journal
+   */
+  public static String getSegmentPath(String journalPath, int segment) {
+    return journalPath + "." + segment;
+  }
+
+  @Override
+  public void onStart(int[] colors, int numPartitions) {
+    this.numNodes = colors.length;
+    this.numPartitions = numPartitions;
+    try {
+      // segments of an earlier journal at the same path would be read as part of this one
+      for (int i = 0; new File(getSegmentPath(journalPath, i)).exists(); i++) {
+        if (!new File(getSegmentPath(journalPath, i)).delete()) {
+          throw new IOException("Unable to delete " + getSegmentPath(journalPath, i));
+        }
+      }
+      new PartitionWriter().writeBinary(colors, numPartitions, getInitPath(journalPath));
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  @Override
+  public void onSwap(int round, int node1, int color1, int node2, int color2) {
+    append(round, node1, node2, color1, color2);
+  }
+
+  @Override
+  public void onMove(int round, int node, int fromColor, int toColor) {
+    append(round, node, NO_NODE, fromColor, toColor);
+  }
+
+  @Override
+  public void onFinish(int bestRound) {
+    flush();
+    // without a segment there is no record, and the starting colors are those returned
+    if (error == null && firstSegment != null) {
+      firstSegment.putInt(FINAL_ROUND_OFFSET * 4, bestRound);
+    }
+  }
+
+  private void append(int round, int node1, int node2, int color1, int color2) {
+    if (round != lastRound || buffered == BUFFER_RECORDS) {
+      // a round is complete once a record of the next one comes in
+      flush();
+      lastRound = round;
+    }
+    int i = buffered * RECORD_INTS;
+    buffer[i] = round;
+    buffer[i + 1] = node1;
+    buffer[i + 2] = node2;
+    buffer[i + 3] = color1;
+    buffer[i + 4] = color2;
+    buffered++;
+  }
+
+  /**
+   * Copies the buffered records to the mapped segments
+   */
+  private void flush() {
+    if (error != null) {
+      buffered = 0;
+      return;
+    }
+    try {
+      int written = 0;
+      while (written < buffered) {
+        if (segmentInts == null || segmentRecords == SEGMENT_RECORDS) {
+          openSegment(segment + 1);
+        }
+        int count = Math.min(buffered - written, SEGMENT_RECORDS - segmentRecords);
+        segmentInts.put(buffer, written * RECORD_INTS, count * RECORD_INTS);
+        segmentRecords += count;
+        written += count;
+        // the record count is updated last, so a reader never sees a partial record
+        mapped.putInt(RECORDS_OFFSET * 4, segmentRecords);
+      }
+      totalRecords += buffered;
+    } catch (IOException e) {
+      fail(e);
+    }
+    buffered = 0;
+  }
+
+  private void openSegment(int number) throws IOException {
+    RandomAccessFile file = new RandomAccessFile(getSegmentPath(journalPath, number), "rw");
+    try {
+      long size = 4L * (HEADER_INTS + (long) SEGMENT_RECORDS * RECORD_INTS);
+      file.setLength(size);
+      mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } finally {
+      // the mapping stays valid after the file is closed
+      file.close();
+    }
+    segmentInts = mapped.asIntBuffer();
+    segmentInts.put(MAGIC).put(VERSION).put(numNodes).put(numPartitions).put(number).put(0).put(-1);
+    if (number == 0) {
+      firstSegment = mapped;
+    }
+    segment = number;
+    segmentRecords = 0;
+  }
+
+  private void fail(IOException e) {
+    if (error == null) {
+      logger.error("Unable to write the swap journal: " + e.getMessage());
+      error = e;
+    }
+  }
+
+  /**
+   * Writes the remaining records and forces the segments to disk
+   *
+   * @throws IOException if this or any earlier write failed
+   */
+  @Override
+  public void close() throws IOException {
+    flush();
+    if (mapped != null) {
+      mapped.force();
+    }
+    if (firstSegment != null && firstSegment != mapped) {
+      firstSegment.force();
+    }
+    if (error != null) {
+      throw error;
+    }
+    logger.info("Swap journal written to " + journalPath + ". Records: " + totalRecords + ", segments: "
+            + (segment + 1));
+  }
+}
@@ -0,0 +1,254 @@
+package se.kth.jabeja.io;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a journal written by {@link SwapJournal}: rebuilds the coloring at the end of any round
+ * and lists the color changes of a node.
+ */
+public class SwapJournalReader {
+
+  final static Logger logger = Logger.getLogger(SwapJournalReader.class);
+
+  private final String journalPath;
+  private final int[] initColors;
+  private final int numPartitions;
+
+  /**
+   * @param journalPath path the journal files are named after
+   * @throws IOException if the starting colors of the journal can not be read
+   */
+  public SwapJournalReader(String journalPath) throws IOException {
+    this.journalPath = journalPath;
+    String initPath = SwapJournal.getInitPath(journalPath);
+    if (!new File(initPath).isFile()) {
+      throw new IOException(initPath + " does not exist, " + journalPath + " is not a swap journal");
+    }
+    int[] header = readInitHeader(initPath);
+    this.initColors = new PartitionReader().readPartition(initPath, header[0]);
+    this.numPartitions = header[1];
+  }
+
+  public int getNumNodes() {
+    return initColors.length;
+  }
+
+  /**
+   * @return number of partitions of the journaled run
+   */
+  public int getNumPartitions() {
+    return numPartitions;
+  }
+
+  /**
+   * @return round at the end of which the journaled run had the coloring it returned, -1 if the
+   * journal has no record or the run did not end
+   * @throws IOException if the first segment is unreadable
+   */
+  public int getFinalRound() throws IOException {
+    File file = new File(SwapJournal.getSegmentPath(journalPath, 0));
+    if (!file.isFile()) {
+      return -1;
+    }
+    IntBuffer ints = map(file);
+    checkHeader(file, ints, 0);
+    return ints.get(SwapJournal.FINAL_ROUND_OFFSET);
+  }
+
+  /**
+   * Applies the journal to the starting colors, checking that every record matches the colors
+   *
+   * @param replayRound last round to apply, or a negative value to rebuild the coloring the run
+   *                    returned (the whole journal if the run did not end)
+   * @return the colors at the end of the round
+   * @throws IOException if the journal is unreadable or does not match the starting colors
+   */
+  public int[] replay(int replayRound) throws IOException {
+    final int lastRound = replayRound >= 0 ? replayRound : getFinalRound();
+    final int[] colors = initColors.clone();
+    long records = read(new RecordHandler() {
+      @Override
+      public boolean onRecord(long index, int round, int node1, int node2, int color1, int color2) throws IOException {
+        if (lastRound >= 0 && round > lastRound) {
+          return false;
+        }
+        apply(colors, index, node1, node2, color1, color2);
+        return true;
+      }
+    });
+    logger.info("Replayed " + records + " records of " + journalPath
+            + (lastRound >= 0 ? " up to round " + lastRound : ""));
+    return colors;
+  }
+
+  /**
+   * Receives the colorings rebuilt by {@link #replay(int[], ColoringHandler)}
+   */
+  public interface ColoringHandler {
+    /**
+     * @param colors colors at the end of the round, only valid during the call
+     */
+    void onColoring(int round, int[] colors) throws IOException;
+  }
+
+  /**
+   * Rebuilds the colorings at the end of several rounds in a single pass over the journal
+   *
+   * @param rounds  rounds to rebuild, in increasing order
+   * @param handler receives the coloring of every round, in the same order
+   * @throws IOException if the journal is unreadable or does not match the starting colors
+   */
+  public void replay(final int[] rounds, final ColoringHandler handler) throws IOException {
+    final int[] colors = initColors.clone();
+    // index of the next round to hand over
+    final int[] next = {0};
+    read(new RecordHandler() {
+      @Override
+      public boolean onRecord(long index, int round, int node1, int node2, int color1, int color2) throws IOException {
+        while (next[0] < rounds.length && round > rounds[next[0]]) {
+          handler.onColoring(rounds[next[0]++], colors);
+        }
+        if (next[0] == rounds.length) {
+          return false;
+        }
+        apply(colors, index, node1, node2, color1, color2);
+        return true;
+      }
+    });
+    // rounds without any later record end with the last colors
+    while (next[0] < rounds.length) {
+      handler.onColoring(rounds[next[0]++], colors);
+    }
+  }
+
+  /**
+   * Applies a record to the colors, checking that it matches them
+   */
+  private void apply(int[] colors, long index, int node1, int node2, int color1, int color2) throws IOException {
+    checkNode(index, node1);
+    if (colors[node1] != color1) {
+      throw new IOException("Journal record " + index + " expects node " + (node1 + 1) + " to have color "
+              + color1 + " but it has " + colors[node1]);
+    }
+    if (node2 == SwapJournal.NO_NODE) {
+      colors[node1] = color2;
+    } else {
+      checkNode(index, node2);
+      if (colors[node2] != color2) {
+        throw new IOException("Journal record " + index + " expects node " + (node2 + 1) + " to have color "
+                + color2 + " but it has " + colors[node2]);
+      }
+      colors[node1] = color2;
+      colors[node2] = color1;
+    }
+  }
+
+  /**
+   * @param node node (0-based) whose history is listed
+   * @return one line per color change of the node
+   * @throws IOException if the journal is unreadable
+   */
+  public String trace(final int node) throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("Node ").append(node + 1).append(" starts with color ").append(initColors[node]);
+    read(new RecordHandler() {
+      @Override
+      public boolean onRecord(long index, int round, int node1, int node2, int color1, int color2) {
+        if (node1 == node && node2 == SwapJournal.NO_NODE) {
+          sb.append("\nround ").append(round).append(": moved alone from color ").append(color1)
+                  .append(" to color ").append(color2);
+        } else if (node1 == node || node2 == node) {
+          boolean first = node1 == node;
+          sb.append("\nround ").append(round).append(": swapped with node ").append((first ? node2 : node1) + 1)
+                  .append(", color ").append(first ? color1 : color2)
+                  .append(" -> ").append(first ? color2 : color1);
+        }
+        return true;
+      }
+    });
+    return sb.toString();
+  }
+
+  private void checkNode(long index, int node) throws IOException {
+    if (node < 0 || node >= initColors.length) {
+      throw new IOException("Journal record " + index + " refers to node " + (node + 1) + " which does not exist");
+    }
+  }
+
+  private interface RecordHandler {
+    /**
+     * @return false to stop reading
+     */
+    boolean onRecord(long index, int round, int node1, int node2, int color1, int color2) throws IOException;
+  }
+
+  /**
+   * Passes the records of all segments, in order, to the handler
+   *
+   * @return number of records passed
+   */
+  private long read(RecordHandler handler) throws IOException {
+    long index = 0;
+    for (int segment = 0; ; segment++) {
+      File file = new File(SwapJournal.getSegmentPath(journalPath, segment));
+      if (!file.isFile()) {
+        return index;
+      }
+      IntBuffer ints = map(file);
+      checkHeader(file, ints, segment);
+      int records = ints.get(SwapJournal.RECORDS_OFFSET);
+      if (records < 0 || SwapJournal.HEADER_INTS + (long) records * SwapJournal.RECORD_INTS > ints.limit()) {
+        throw new IOException(file + " is truncated");
+      }
+      int i = SwapJournal.HEADER_INTS;
+      for (int r = 0; r < records; r++, i += SwapJournal.RECORD_INTS) {
+        if (!handler.onRecord(index, ints.get(i), ints.get(i + 1), ints.get(i + 2), ints.get(i + 3),
+                ints.get(i + 4))) {
+          return index;
+        }
+        index++;
+      }
+    }
+  }
+
+  private void checkHeader(File file, IntBuffer ints, int segment) throws IOException {
+    if (ints.limit() < SwapJournal.HEADER_INTS || ints.get(0) != SwapJournal.MAGIC
+            || ints.get(1) != SwapJournal.VERSION || ints.get(4) != segment) {
+      throw new IOException(file + " is not segment " + segment + " of a version " + SwapJournal.VERSION
+              + " swap journal");
+    }
+    if (ints.get(2) != initColors.length) {
+      throw new IOException(file + " has " + ints.get(2) + " nodes but the starting colors have "
+              + initColors.length);
+    }
+  }
+
+  private IntBuffer map(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()).asIntBuffer();
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * @return number of nodes and number of partitions of the binary partition file
+   */
+  private int[] readInitHeader(String initPath) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(initPath, "r");
+    try {
+      // magic and version precede the number of nodes
+      raf.seek(8);
+      return new int[]{raf.readInt(), raf.readInt()};
+    } finally {
+      raf.close();
+    }
+  }
+}
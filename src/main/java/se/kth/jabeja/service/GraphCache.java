@@ -0,0 +1,146 @@
+package se.kth.jabeja.service;
+
+import org.apache.log4j.Logger;
+import se.kth.jabeja.graph.CsrGraph;
+import se.kth.jabeja.io.GraphReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Parsed graphs kept in memory between jobs. The least recently used graphs are evicted
+ * once the estimated footprint of the cached graphs exceeds the budget. A graph file is
+ * parsed only once even if several jobs ask for it at the same time, and it is parsed
+ * again if the file changes.
+ */
+public class GraphCache {
+    final static Logger logger = Logger.getLogger(GraphCache.class);
+
+    private static class Entry {
+        final CsrGraph graph;
+        final long lastModified;
+
+        Entry(CsrGraph graph, long lastModified) {
+            this.graph = graph;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final long maxBytes;
+    private final GraphReader graphReader = new GraphReader();
+    // access ordered, so the first entry is the least recently used
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, FutureTask<CsrGraph>> loading = new ConcurrentHashMap<>();
+    private long usedBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxBytes memory budget of the cached graphs
+     */
+    public GraphCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param graphFilePath path of a graph in Jostle/METIS format
+     * @return the parsed graph, from the cache if possible
+     * @throws IOException if the graph can not be read
+     */
+    public CsrGraph get(String graphFilePath) throws IOException {
+        File file = new File(graphFilePath);
+        final String key = file.getCanonicalPath();
+        long lastModified = file.lastModified();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified) {
+                hits++;
+                return entry.graph;
+            }
+            misses++;
+        }
+
+        FutureTask<CsrGraph> task = new FutureTask<>(new Callable<CsrGraph>() {
+            @Override
+            public CsrGraph call() throws IOException {
+                return graphReader.readGraph(key);
+            }
+        });
+        FutureTask<CsrGraph> running = loading.putIfAbsent(key, task);
+        if (running == null) {
+            running = task;
+            task.run();
+        }
+
+        try {
+            CsrGraph graph = running.get();
+            if (running == task) {
+                put(key, new Entry(graph, lastModified));
+            }
+            return graph;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unable to read " + graphFilePath, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + graphFilePath);
+        } finally {
+            if (running == task) {
+                loading.remove(key, task);
+            }
+        }
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            usedBytes -= old.graph.getMemoryFootprint();
+        }
+
+        long size = entry.graph.getMemoryFootprint();
+        if (size > maxBytes) {
+            logger.info(key + " (" + size + " bytes) does not fit in the graph cache");
+            return;
+        }
+
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (usedBytes + size > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            usedBytes -= eldest.getValue().graph.getMemoryFootprint();
+            iterator.remove();
+            logger.info("Evicted " + eldest.getKey() + " from the graph cache");
+        }
+        entries.put(key, entry);
+        usedBytes += size;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
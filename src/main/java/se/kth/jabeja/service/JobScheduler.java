@@ -0,0 +1,118 @@
+package se.kth.jabeja.service;
+
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the jobs of the partitioning service on a fixed number of worker threads.
+ * Jobs wait in a bounded queue; when it is full new jobs are rejected instead of
+ * piling up. Finished jobs are kept, so their results can be fetched, up to a limit.
+ * The partitions of the finished jobs are kept within a memory budget; past it the
+ * partitions of the oldest jobs are dropped while their status stays available.
+ */
+public class JobScheduler {
+    final static Logger logger = Logger.getLogger(JobScheduler.class);
+    /**
+     * Number of finished jobs kept for their results
+     */
+    public static final int MAX_FINISHED_JOBS = 1000;
+
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentSkipListMap<Long, PartitionJob> jobs = new ConcurrentSkipListMap<>();
+    private final long maxResultBytes;
+
+    /**
+     * @param maxResultBytes memory the partitions of the finished jobs may take
+     */
+    public JobScheduler(int workers, int queueSize, long maxResultBytes) {
+        this.maxResultBytes = maxResultBytes;
+        final AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jabeja-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.AbortPolicy()) {
+            @Override
+            protected void afterExecute(Runnable runnable, Throwable throwable) {
+                // the result of the job that just finished counts against the budget now
+                trimFinishedJobs();
+            }
+        };
+    }
+
+    /**
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public void submit(PartitionJob job) {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        logger.info("Job " + job.getId() + " queued");
+        trimFinishedJobs();
+    }
+
+    public PartitionJob getJob(long id) {
+        return jobs.get(id);
+    }
+
+    public ConcurrentNavigableMap<Long, PartitionJob> getJobs() {
+        return jobs;
+    }
+
+    public int getQueuedJobs() {
+        return executor.getQueue().size();
+    }
+
+    public int getRunningJobs() {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void trimFinishedJobs() {
+        int finished = 0;
+        for (PartitionJob job : jobs.values()) {
+            if (job.isFinished()) {
+                finished++;
+            }
+        }
+        Iterator<PartitionJob> iterator = jobs.values().iterator();
+        while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+
+        // newest first, so the results most likely to be fetched are the ones kept
+        long resultBytes = 0;
+        for (PartitionJob job : jobs.descendingMap().values()) {
+            long footprint = job.getResultFootprint();
+            if (resultBytes + footprint > maxResultBytes) {
+                logger.info("Dropping the partition of job " + job.getId());
+                job.dropResult();
+            } else {
+                resultBytes += footprint;
+            }
+        }
+    }
+}
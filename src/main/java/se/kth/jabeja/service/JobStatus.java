@@ -0,0 +1,22 @@
+package se.kth.jabeja.service;
+
+/**
+ * Lifecycle of a job of the partitioning service
+ */
+public enum JobStatus {
+    QUEUED("QUEUED"),
+    RUNNING("RUNNING"),
+    DONE("DONE"),
+    FAILED("FAILED");
+
+    String name;
+
+    JobStatus(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,29 @@
+package se.kth.jabeja.service;
+
+/**
+ * Minimal helpers to write the JSON responses of the service
+ */
+class Json {
+
+    private Json() {
+    }
+
+    static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String error(String message) {
+        return "{\"error\": \"" + escape(message) + "\"}";
+    }
+}
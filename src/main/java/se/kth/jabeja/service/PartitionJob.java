@@ -0,0 +1,163 @@
+package se.kth.jabeja.service;
+
+import org.apache.log4j.Logger;
+import se.kth.jabeja.api.PartitionResult;
+import se.kth.jabeja.api.Partitioner;
+import se.kth.jabeja.api.ProgressListener;
+import se.kth.jabeja.api.RoundReport;
+import se.kth.jabeja.config.Config;
+import se.kth.jabeja.graph.CsrGraph;
+import se.kth.jabeja.io.PartitionReader;
+
+/**
+ * A partitioning request of the service. Its progress is updated after every round
+ * by the worker running it and can be read from any thread.
+ */
+public class PartitionJob implements Runnable, ProgressListener {
+    final static Logger logger = Logger.getLogger(PartitionJob.class);
+
+    private final long id;
+    private final Config config;
+    private final GraphCache graphCache;
+    private final long submitTime;
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile long startTime;
+    private volatile long endTime;
+    private volatile int round = -1;
+    private volatile long edgeCut = -1;
+    private volatile long bestEdgeCut = -1;
+    private volatile long topologyCost = -1;
+    private volatile long bestTopologyCost = -1;
+    private volatile long bestObjective = -1;
+    private volatile int swaps;
+    private volatile int migrations;
+    private volatile PartitionResult result;
+    private volatile boolean resultDropped;
+    private volatile String error;
+
+    public PartitionJob(long id, Config config, GraphCache graphCache) {
+        this.id = id;
+        this.config = config;
+        this.graphCache = graphCache;
+        this.submitTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void run() {
+        status = JobStatus.RUNNING;
+        startTime = System.currentTimeMillis();
+        try {
+            CsrGraph graph = graphCache.get(config.getGraphFilePath());
+            Partitioner partitioner = new Partitioner();
+            PartitionResult partitionResult;
+            if (config.hasInitPartitionFile()) {
+                int[] colors = new PartitionReader().readPartition(config.getInitPartitionFilePath(),
+                        graph.getNumNodes());
+                partitionResult = partitioner.reshard(graph, colors, config, this);
+            } else {
+                partitionResult = partitioner.partition(graph, config, this);
+            }
+            result = partitionResult;
+            bestEdgeCut = partitionResult.getEdgeCut();
+            bestTopologyCost = partitionResult.getTopologyCost();
+            status = JobStatus.DONE;
+        } catch (Exception e) {
+            logger.error("Job " + id + " failed", e);
+            error = e.getMessage() == null ? e.toString() : e.getMessage();
+            status = JobStatus.FAILED;
+        } finally {
+            endTime = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void onRound(RoundReport report) {
+        round = report.getRound();
+        edgeCut = report.getEdgeCut();
+        topologyCost = report.getTopologyCost();
+        swaps = report.getSwaps();
+        migrations = report.getMigrations();
+        // the best round is the one with the lowest topology cost if the job has a topology
+        if (bestObjective < 0 || report.getObjective() < bestObjective) {
+            bestObjective = report.getObjective();
+            bestEdgeCut = edgeCut;
+            bestTopologyCost = topologyCost;
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == JobStatus.DONE || status == JobStatus.FAILED;
+    }
+
+    /**
+     * @return the result once the job is done, null before and once it has been dropped
+     */
+    public PartitionResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return true if the result was dropped to keep the memory of the service bounded
+     */
+    public boolean isResultDropped() {
+        return resultDropped;
+    }
+
+    /**
+     * @return bytes taken by the result, mostly its colors
+     */
+    public long getResultFootprint() {
+        PartitionResult partitionResult = result;
+        return partitionResult == null ? 0 : 4L * partitionResult.getColors().length + 64;
+    }
+
+    /**
+     * Frees the colors of a finished job; its status and metrics stay available
+     */
+    public void dropResult() {
+        if (result != null) {
+            resultDropped = true;
+            result = null;
+        }
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"id\": ").append(id)
+                .append(", \"status\": \"").append(status).append('"')
+                .append(", \"graph\": \"").append(Json.escape(config.getGraphFilePath())).append('"')
+                .append(", \"numPartitions\": ").append(config.getNumPartitions())
+                .append(", \"rounds\": ").append(config.getRounds())
+                .append(", \"round\": ").append(round)
+                .append(", \"edgeCut\": ").append(edgeCut)
+                .append(", \"bestEdgeCut\": ").append(bestEdgeCut);
+        if (config.hasTopology()) {
+            sb.append(", \"topologyCost\": ").append(topologyCost)
+                    .append(", \"bestTopologyCost\": ").append(bestTopologyCost);
+        }
+        sb.append(", \"swaps\": ").append(swaps)
+                .append(", \"migrations\": ").append(migrations)
+                .append(", \"submitTime\": ").append(submitTime);
+        if (startTime > 0) {
+            sb.append(", \"startTime\": ").append(startTime);
+        }
+        if (endTime > 0) {
+            sb.append(", \"endTime\": ").append(endTime);
+        }
+        if (resultDropped) {
+            sb.append(", \"partitionDropped\": true");
+        }
+        if (error != null) {
+            sb.append(", \"error\": \"").append(Json.escape(error)).append('"');
+        }
+        return sb.append("}").toString();
+    }
+}
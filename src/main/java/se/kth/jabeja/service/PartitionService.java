@@ -0,0 +1,256 @@
+package se.kth.jabeja.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.log4j.Logger;
+import se.kth.jabeja.api.PartitionResult;
+import se.kth.jabeja.config.Config;
+import se.kth.jabeja.io.CLI;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long running partitioning service listening on localhost. Parsed graphs stay in a
+ * {@link GraphCache} and the JIT stays warm between jobs.
+ * <ul>
+ * <li>POST /jobs with the command line arguments of the job as body, e.g.
+ * "-graph ./graphs/3elt.graph -numPartitions 8", returns the id of the job. Arguments
+ * containing spaces are quoted as in a shell, e.g. -graph "./my graphs/3elt.graph"</li>
+ * <li>GET /jobs lists the jobs, GET /jobs/{id} shows the status and progress of a job</li>
+ * <li>GET /jobs/{id}/partition returns the partition of a finished job in .part.k format,
+ * as long as it fits in the memory given to the partitions of finished jobs</li>
+ * <li>GET /status shows the queue and the graph cache</li>
+ * </ul>
+ */
+public class PartitionService {
+    final static Logger logger = Logger.getLogger(PartitionService.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Config config;
+    private final GraphCache graphCache;
+    private final JobScheduler scheduler;
+    private final AtomicLong nextJobId = new AtomicLong(1);
+    private HttpServer server;
+
+    public PartitionService(Config config) {
+        this.config = config;
+        this.graphCache = new GraphCache(config.getGraphCacheSize() * 1024L * 1024L);
+        this.scheduler = new JobScheduler(config.getWorkers(), config.getQueueSize(),
+                config.getResultCacheSize() * 1024L * 1024L);
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.getPort()), 0);
+        server.createContext("/jobs", new JobsHandler());
+        server.createContext("/status", new StatusHandler());
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.start();
+        logger.info("Partitioning service listening on " + server.getAddress() + " with " + config.getWorkers()
+                + " workers");
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        scheduler.shutdown();
+    }
+
+    private class JobsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+                String method = exchange.getRequestMethod();
+                // path is "", "jobs", [id, [partition]]
+                if (path.length == 2 && method.equals("POST")) {
+                    submit(exchange);
+                } else if (path.length == 2 && method.equals("GET")) {
+                    list(exchange);
+                } else if (path.length == 3 && method.equals("GET")) {
+                    PartitionJob job = findJob(exchange, path[2]);
+                    if (job != null) {
+                        send(exchange, 200, job.toJson());
+                    }
+                } else if (path.length == 4 && path[3].equals("partition") && method.equals("GET")) {
+                    PartitionJob job = findJob(exchange, path[2]);
+                    if (job != null) {
+                        sendPartition(exchange, job);
+                    }
+                } else {
+                    send(exchange, 404, Json.error("Unknown request " + method + " " + exchange.getRequestURI()));
+                }
+            } catch (Exception e) {
+                logger.error("Unable to handle " + exchange.getRequestURI(), e);
+                // once the headers are out the client only sees the response cut short
+                if (exchange.getResponseCode() == -1) {
+                    send(exchange, 500, Json.error(String.valueOf(e.getMessage())));
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private void submit(HttpExchange exchange) throws IOException {
+            String body = readBody(exchange.getRequestBody());
+            Config jobConfig;
+            try {
+                jobConfig = new CLI().parseJobArgs(splitArgs(body));
+            } catch (Exception e) {
+                send(exchange, 400, Json.error(String.valueOf(e.getMessage())));
+                return;
+            }
+
+            PartitionJob job = new PartitionJob(nextJobId.getAndIncrement(), jobConfig, graphCache);
+            try {
+                scheduler.submit(job);
+            } catch (RejectedExecutionException e) {
+                send(exchange, 503, Json.error("The job queue is full"));
+                return;
+            }
+            send(exchange, 202, "{\"id\": " + job.getId() + "}");
+        }
+
+        private void list(HttpExchange exchange) throws IOException {
+            StringBuilder sb = new StringBuilder("[");
+            for (PartitionJob job : scheduler.getJobs().values()) {
+                if (sb.length() > 1) {
+                    sb.append(",\n");
+                }
+                sb.append(job.toJson());
+            }
+            send(exchange, 200, sb.append("]").toString());
+        }
+
+        private PartitionJob findJob(HttpExchange exchange, String id) throws IOException {
+            PartitionJob job = null;
+            try {
+                job = scheduler.getJob(Long.parseLong(id));
+            } catch (NumberFormatException e) {
+                // reported as not found
+            }
+            if (job == null) {
+                send(exchange, 404, Json.error("Unknown job " + id));
+            }
+            return job;
+        }
+
+        private void sendPartition(HttpExchange exchange, PartitionJob job) throws IOException {
+            PartitionResult result = job.getResult();
+            if (result == null && job.isResultDropped()) {
+                send(exchange, 410, Json.error("The partition of job " + job.getId()
+                        + " was dropped to free memory"));
+                return;
+            }
+            if (result == null) {
+                send(exchange, 409, Json.error("Job " + job.getId() + " is " + job.getStatus()));
+                return;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int color : result.getColors()) {
+                sb.append(color).append('\n');
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            sendBytes(exchange, 200, sb.toString().getBytes(UTF8));
+        }
+    }
+
+    private class StatusHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                String status = "{\"workers\": " + config.getWorkers()
+                        + ", \"runningJobs\": " + scheduler.getRunningJobs()
+                        + ", \"queuedJobs\": " + scheduler.getQueuedJobs()
+                        + ", \"queueSize\": " + config.getQueueSize()
+                        + ", \"cachedGraphs\": " + graphCache.getSize()
+                        + ", \"cacheUsedBytes\": " + graphCache.getUsedBytes()
+                        + ", \"cacheMaxBytes\": " + graphCache.getMaxBytes()
+                        + ", \"cacheHits\": " + graphCache.getHits()
+                        + ", \"cacheMisses\": " + graphCache.getMisses() + "}";
+                send(exchange, 200, status);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Splits command line arguments on whitespace. Single or double quotes group characters,
+     * whitespace included, and a backslash outside single quotes escapes the next character.
+     *
+     * @throws IllegalArgumentException if a quote is not closed
+     */
+    static String[] splitArgs(String line) {
+        List<String> args = new ArrayList<>();
+        StringBuilder arg = new StringBuilder();
+        boolean inArg = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && quote != '\'' && i + 1 < line.length()) {
+                arg.append(line.charAt(++i));
+                inArg = true;
+            } else if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    arg.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inArg = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArg) {
+                    args.add(arg.toString());
+                    arg.setLength(0);
+                    inArg = false;
+                }
+            } else {
+                arg.append(c);
+                inArg = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unclosed " + quote + " in the job arguments");
+        }
+        if (inArg) {
+            args.add(arg.toString());
+        }
+        return args.toArray(new String[args.size()]);
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), UTF8);
+    }
+
+    private static void send(HttpExchange exchange, int code, String json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        sendBytes(exchange, code, (json + "\n").getBytes(UTF8));
+    }
+
+    private static void sendBytes(HttpExchange exchange, int code, byte[] bytes) throws IOException {
+        exchange.sendResponseHeaders(code, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+}